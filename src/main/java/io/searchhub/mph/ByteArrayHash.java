@@ -0,0 +1,42 @@
+package io.searchhub.mph;
+
+import org.minperf.universal.UniversalHash;
+
+/**
+ * Universal hash over the content of byte arrays, reading 8 bytes per step.
+ */
+final class ByteArrayHash implements UniversalHash<byte[]> {
+
+	@Override
+	public long universalHash(byte[] key, long index) {
+		return hash(key, index);
+	}
+
+	static long hash(byte[] key, long seed) {
+		long h = CharSequenceHash.mix64(seed ^ 0x9E3779B97F4A7C15L);
+		int length = key.length;
+		int i = 0;
+		for (; i + Long.BYTES <= length; i += Long.BYTES) {
+			long word = (key[i] & 0xFFL)
+					| (key[i + 1] & 0xFFL) << 8
+					| (key[i + 2] & 0xFFL) << 16
+					| (key[i + 3] & 0xFFL) << 24
+					| (key[i + 4] & 0xFFL) << 32
+					| (key[i + 5] & 0xFFL) << 40
+					| (key[i + 6] & 0xFFL) << 48
+					| (key[i + 7] & 0xFFL) << 56;
+			h = Long.rotateLeft((h ^ word) * 0xff51afd7ed558ccdL, 31);
+		}
+		long tail = 0;
+		for (int shift = 0; i < length; i++, shift += 8) {
+			tail |= (key[i] & 0xFFL) << shift;
+		}
+		h = Long.rotateLeft((h ^ tail) * 0xff51afd7ed558ccdL, 31);
+		return CharSequenceHash.mix64(h ^ length);
+	}
+
+	@Override
+	public String toString() {
+		return "ByteArrayHash";
+	}
+}
@@ -0,0 +1,35 @@
+package io.searchhub.mph;
+
+import org.minperf.universal.UniversalHash;
+
+/**
+ * Universal hash over the chars of any CharSequence, so normalized views can be hashed without creating a String.
+ * Equal char sequences get the same hash, regardless of their implementation.
+ */
+final class CharSequenceHash implements UniversalHash<CharSequence> {
+
+	@Override
+	public long universalHash(CharSequence key, long index) {
+		return hash(key, index);
+	}
+
+	static long hash(CharSequence key, long seed) {
+		long h = mix64(seed ^ 0x9E3779B97F4A7C15L);
+		int length = key.length();
+		for (int i = 0; i < length; i++) {
+			h = Long.rotateLeft((h ^ key.charAt(i)) * 0xff51afd7ed558ccdL, 31);
+		}
+		return mix64(h ^ length);
+	}
+
+	static long mix64(long x) {
+		x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+		x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return x ^ (x >>> 33);
+	}
+
+	@Override
+	public String toString() {
+		return "CharSequenceHash";
+	}
+}
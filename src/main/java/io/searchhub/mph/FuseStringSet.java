@@ -0,0 +1,389 @@
+package io.searchhub.mph;
+
+import java.io.Serializable;
+import java.util.*;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.minperf.universal.StringHash;
+
+/**
+ * Unmodifiable membership set based on a binary fuse filter (Graf and Lemire, "Binary Fuse Filters: Fast and Smaller Than Xor Filters").
+ * Like {@link MPHStringSet} the keys are not stored, so only 'contains' and 'size' are supported.
+ * <p>
+ * Compared to MPHStringSet it does not need a minimal perfect hash function: with 8 bit fingerprints it uses about 9 bits per key
+ * (false positive rate ~1/256), with 16 bit fingerprints about 18 bits per key (false positive rate ~1/65536).
+ * A lookup is a single string hash and 3 array accesses.
+ * </p>
+ * <p>Once constructed, the set can be queried by any number of threads without synchronization.</p>
+ */
+public class FuseStringSet implements Set<String> {
+
+	private static final int  ARITY            = 3;
+	private static final int  MAX_ATTEMPTS     = 100;
+	private static final long KEY_HASH_SEED_K0 = 0x5B6F_1C3A_9E27_D44BL;
+	private static final long KEY_HASH_SEED_K1 = 0x1F83_D9AB_FB41_BD6BL;
+
+	private final int    size;
+	private final int    fingerprintBits;
+	private final long   seed;
+	private final int    segmentLength;
+	private final int    segmentLengthMask;
+	private final int    segmentCountLength;
+	private final byte[] fingerprints;
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		static final long serialVersionUID = 1_000L;
+
+		int    size;
+		int    fingerprintBits;
+		long   seed;
+		int    segmentLength;
+		int    segmentCountLength;
+		// for 16 bit fingerprints two consecutive bytes (little endian) form one fingerprint
+		byte[] fingerprints;
+
+		public void setFingerprints(String base64Str) {
+			this.fingerprints = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	public FuseStringSet(String... keys) {
+		this(new HashSet<>(Arrays.asList(keys)));
+	}
+
+	/**
+	 * Build set with 8 bit fingerprints.
+	 */
+	public FuseStringSet(Set<String> keys) {
+		this(keys, 8);
+	}
+
+	/**
+	 * @param keys            the keys to store
+	 * @param fingerprintBits either 8 or 16. More bits reduce the false positive rate, but double the memory usage.
+	 */
+	public FuseStringSet(Set<String> keys, int fingerprintBits) {
+		if (fingerprintBits != 8 && fingerprintBits != 16) {
+			throw new IllegalArgumentException("fingerprintBits must be 8 or 16, but was " + fingerprintBits);
+		}
+		long[] keyHashes = getUniqueKeyHashes(keys);
+		int keyCount = keyHashes.length;
+
+		int segmentLength = keyCount == 0 ? 4 : calculateSegmentLength(keyCount);
+		double sizeFactor = keyCount <= 1 ? 0 : calculateSizeFactor(keyCount);
+		int capacity = (int) Math.round(keyCount * sizeFactor);
+		int initSegmentCount = (capacity + segmentLength - 1) / segmentLength - (ARITY - 1);
+		int arrayLength = (initSegmentCount + ARITY - 1) * segmentLength;
+		int segmentCount = (arrayLength + segmentLength - 1) / segmentLength;
+		segmentCount = segmentCount <= ARITY - 1 ? 1 : segmentCount - (ARITY - 1);
+		arrayLength = (segmentCount + ARITY - 1) * segmentLength;
+
+		this.size = keys.size();
+		this.fingerprintBits = fingerprintBits;
+		this.segmentLength = segmentLength;
+		this.segmentLengthMask = segmentLength - 1;
+		this.segmentCountLength = segmentCount * segmentLength;
+		this.fingerprints = new byte[keyCount == 0 ? 0 : arrayLength * (fingerprintBits / 8)];
+		this.seed = keyCount == 0 ? 0 : fill(keyHashes, arrayLength);
+	}
+
+	public FuseStringSet(SerializableData dto) {
+		size = dto.size;
+		fingerprintBits = dto.fingerprintBits;
+		seed = dto.seed;
+		segmentLength = dto.segmentLength;
+		segmentLengthMask = dto.segmentLength - 1;
+		segmentCountLength = dto.segmentCountLength;
+		fingerprints = dto.fingerprints;
+	}
+
+	public SerializableData toSerializable() {
+		return new SerializableData(size, fingerprintBits, seed, segmentLength, segmentCountLength, fingerprints);
+	}
+
+	private static long[] getUniqueKeyHashes(Set<String> keys) {
+		long[] keyHashes = new long[keys.size()];
+		int i = 0;
+		for (String key : keys) {
+			keyHashes[i++] = StringHash.getSipHash24(key, KEY_HASH_SEED_K0, KEY_HASH_SEED_K1);
+		}
+		// duplicate hashes would cancel each other out during construction
+		Arrays.sort(keyHashes);
+		int uniqueCount = keyHashes.length == 0 ? 0 : 1;
+		for (i = 1; i < keyHashes.length; i++) {
+			if (keyHashes[i] != keyHashes[uniqueCount - 1]) {
+				keyHashes[uniqueCount++] = keyHashes[i];
+			}
+		}
+		return uniqueCount == keyHashes.length ? keyHashes : Arrays.copyOf(keyHashes, uniqueCount);
+	}
+
+	private static int calculateSegmentLength(int keyCount) {
+		int segmentLength = 1 << (int) Math.floor(Math.log(keyCount) / Math.log(3.33) + 2.11);
+		return Math.min(segmentLength, 1 << 18);
+	}
+
+	private static double calculateSizeFactor(int keyCount) {
+		return Math.max(1.125, 0.875 + 0.25 * Math.log(1_000_000) / Math.log(keyCount));
+	}
+
+	/**
+	 * Peels the 3-partite hypergraph and assigns the fingerprints in reverse peeling order.
+	 *
+	 * @return the seed that led to a successful construction
+	 */
+	private long fill(long[] keyHashes, int arrayLength) {
+		int keyCount = keyHashes.length;
+		long[] reverseOrder = new long[keyCount + 1];
+		byte[] reverseH = new byte[keyCount];
+		// the lowest 2 bits are the xor of the hash indexes (0, 1 or 2), the remaining 6 bits are the count
+		byte[] t2count = new byte[arrayLength];
+		long[] t2hash = new long[arrayLength];
+		int[] alone = new int[arrayLength];
+		int[] h012 = new int[5];
+
+		int blockBits = 1;
+		while ((1 << blockBits) < segmentCountLength / segmentLength) {
+			blockBits++;
+		}
+		int block = 1 << blockBits;
+
+		long seed = 0;
+		int reverseOrderPos;
+		for (int attempt = 0; ; attempt++) {
+			if (attempt == MAX_ATTEMPTS) {
+				throw new IllegalStateException("could not construct filter after " + MAX_ATTEMPTS + " attempts");
+			}
+			if (attempt > 0) {
+				seed = mix64(seed + attempt);
+				Arrays.fill(t2count, (byte) 0);
+				Arrays.fill(t2hash, 0);
+				Arrays.fill(reverseOrder, 0);
+			}
+
+			// sort hashes by segment (counting sort) for better memory locality
+			reverseOrder[keyCount] = 1;
+			int[] startPos = new int[block];
+			for (int i = 0; i < block; i++) {
+				startPos[i] = (int) ((long) i * keyCount / block);
+			}
+			for (long keyHash : keyHashes) {
+				long hash = mix64(keyHash + seed);
+				int segmentIndex = (int) (hash >>> (64 - blockBits));
+				// only zero hashes may be misplaced, which is not a correctness problem
+				while (reverseOrder[startPos[segmentIndex]] != 0) {
+					segmentIndex = (segmentIndex + 1) & (block - 1);
+				}
+				reverseOrder[startPos[segmentIndex]] = hash;
+				startPos[segmentIndex]++;
+			}
+
+			byte countMask = 0;
+			for (int i = 0; i < keyCount; i++) {
+				long hash = reverseOrder[i];
+				for (int hi = 0; hi < ARITY; hi++) {
+					int index = getHashFromHash(hash, hi);
+					t2count[index] += 4;
+					t2count[index] ^= hi;
+					t2hash[index] ^= hash;
+					countMask |= t2count[index];
+				}
+			}
+			if (countMask < 0) {
+				// counter overflow, try another seed
+				continue;
+			}
+
+			reverseOrderPos = 0;
+			int alonePos = 0;
+			for (int i = 0; i < arrayLength; i++) {
+				alone[alonePos] = i;
+				alonePos += (t2count[i] >> 2) == 1 ? 1 : 0;
+			}
+			while (alonePos > 0) {
+				alonePos--;
+				int index = alone[alonePos];
+				if ((t2count[index] >> 2) == 1) {
+					long hash = t2hash[index];
+					byte found = (byte) (t2count[index] & 3);
+					reverseH[reverseOrderPos] = found;
+					reverseOrder[reverseOrderPos] = hash;
+
+					h012[0] = getHashFromHash(hash, 0);
+					h012[1] = getHashFromHash(hash, 1);
+					h012[2] = getHashFromHash(hash, 2);
+
+					int other = mod3(found + 1);
+					int index3 = h012[other];
+					alone[alonePos] = index3;
+					alonePos += (t2count[index3] >> 2) == 2 ? 1 : 0;
+					t2count[index3] -= 4;
+					t2count[index3] ^= other;
+					t2hash[index3] ^= hash;
+
+					other = mod3(found + 2);
+					index3 = h012[other];
+					alone[alonePos] = index3;
+					alonePos += (t2count[index3] >> 2) == 2 ? 1 : 0;
+					t2count[index3] -= 4;
+					t2count[index3] ^= other;
+					t2hash[index3] ^= hash;
+
+					reverseOrderPos++;
+				}
+			}
+			if (reverseOrderPos == keyCount) {
+				break;
+			}
+		}
+
+		for (int i = reverseOrderPos - 1; i >= 0; i--) {
+			long hash = reverseOrder[i];
+			int found = reverseH[i];
+			h012[0] = getHashFromHash(hash, 0);
+			h012[1] = getHashFromHash(hash, 1);
+			h012[2] = getHashFromHash(hash, 2);
+			h012[3] = h012[0];
+			h012[4] = h012[1];
+			setFingerprint(h012[found], fingerprint(hash) ^ getFingerprint(h012[found + 1]) ^ getFingerprint(h012[found + 2]));
+		}
+		return seed;
+	}
+
+	private static int mod3(int x) {
+		return x > 2 ? x - 3 : x;
+	}
+
+	private int getHashFromHash(long hash, int index) {
+		long h = reduce((int) (hash >>> 32), segmentCountLength);
+		h += (long) index * segmentLength;
+		// keep the lower 36 bits. index 0: right shift by 36; index 1: right shift by 18; index 2: no shift
+		long hh = hash & ((1L << 36) - 1);
+		h ^= (int) ((hh >>> (36 - 18 * index)) & segmentLengthMask);
+		return (int) h;
+	}
+
+	private static int reduce(int hash, int n) {
+		return (int) (((hash & 0xffffffffL) * n) >>> 32);
+	}
+
+	private static long mix64(long x) {
+		x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+		x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return x ^ (x >>> 33);
+	}
+
+	private int fingerprint(long hash) {
+		return (int) (hash ^ (hash >>> 32)) & (fingerprintBits == 8 ? 0xff : 0xffff);
+	}
+
+	private int getFingerprint(int index) {
+		if (fingerprintBits == 8) {
+			return fingerprints[index] & 0xff;
+		}
+		return (fingerprints[index << 1] & 0xff) | (fingerprints[(index << 1) + 1] & 0xff) << 8;
+	}
+
+	private void setFingerprint(int index, int fingerprint) {
+		if (fingerprintBits == 8) {
+			fingerprints[index] = (byte) fingerprint;
+		}
+		else {
+			fingerprints[index << 1] = (byte) fingerprint;
+			fingerprints[(index << 1) + 1] = (byte) (fingerprint >>> 8);
+		}
+	}
+
+	private boolean containsStr(String key) {
+		if (fingerprints.length == 0) return false;
+		long hash = mix64(StringHash.getSipHash24(key, KEY_HASH_SEED_K0, KEY_HASH_SEED_K1) + seed);
+		int h0 = reduce((int) (hash >>> 32), segmentCountLength);
+		int h1 = h0 + segmentLength;
+		int h2 = h1 + segmentLength;
+		h1 ^= (int) ((hash >> 18) & segmentLengthMask);
+		h2 ^= (int) (hash & segmentLengthMask);
+		return (fingerprint(hash) ^ getFingerprint(h0) ^ getFingerprint(h1) ^ getFingerprint(h2)) == 0;
+	}
+
+	/**
+	 * @return the size of the fingerprint array in bits per key
+	 */
+	public double bitsPerKey() {
+		return size == 0 ? 0 : fingerprints.length * 8d / size;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof String && containsStr((String) o);
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		return c.stream().allMatch(this::contains);
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 * 		since keys are not stored
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		throw new UnsupportedOperationException("cannot access keys");
+	}
+
+	@Override
+	public Object[] toArray() {
+		throw new UnsupportedOperationException("cannot access keys");
+	}
+
+	@Override
+	public <T> T[] toArray(T[] a) {
+		throw new UnsupportedOperationException("cannot access keys");
+	}
+
+	@Override
+	public boolean add(String s) {
+		throw new UnsupportedOperationException("set cannot be modified");
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("set cannot be modified");
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends String> c) {
+		throw new UnsupportedOperationException("set cannot be modified");
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("set cannot be modified");
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("set cannot be modified");
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("set cannot be modified");
+	}
+}
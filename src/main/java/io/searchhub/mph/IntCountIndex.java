@@ -0,0 +1,74 @@
+package io.searchhub.mph;
+
+/**
+ * Lean open-addressing hash table that counts the occurrences of int values.
+ * It is used as reverse value index and therefore only supports adding values and looking up their count.
+ * <p>
+ * Not thread-safe while being filled: build it completely before publishing it to other threads.
+ * </p>
+ */
+final class IntCountIndex {
+
+	private int[] keys;
+	// a count of 0 marks a free slot
+	private int[] counts;
+	private int   mask;
+	private int   size;
+
+	IntCountIndex() {
+		keys = new int[16];
+		counts = new int[16];
+		mask = 15;
+	}
+
+	void add(int value) {
+		if ((size + 1) * 2 > keys.length) {
+			resize();
+		}
+		int slot = findSlot(keys, counts, mask, value);
+		if (counts[slot] == 0) {
+			keys[slot] = value;
+			size++;
+		}
+		counts[slot]++;
+	}
+
+	int countOf(int value) {
+		return counts[findSlot(keys, counts, mask, value)];
+	}
+
+	/**
+	 * @return number of distinct values
+	 */
+	int size() {
+		return size;
+	}
+
+	private void resize() {
+		int[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new int[oldKeys.length << 1];
+		counts = new int[oldCounts.length << 1];
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldCounts[i] != 0) {
+				int slot = findSlot(keys, counts, mask, oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+
+	private static int findSlot(int[] keys, int[] counts, int mask, int value) {
+		int slot = mix(value) & mask;
+		while (counts[slot] != 0 && keys[slot] != value) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int mix(int value) {
+		int h = value * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
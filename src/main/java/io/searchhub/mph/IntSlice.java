@@ -0,0 +1,83 @@
+package io.searchhub.mph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only view on a range of an int array. It does not copy the underlying data.
+ */
+public final class IntSlice {
+
+	private final int[] data;
+	private final int   offset;
+	private final int   length;
+
+	IntSlice(int[] data, int offset, int length) {
+		this.data = data;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	public int size() {
+		return length;
+	}
+
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	/**
+	 * @param index position inside this slice
+	 * @return the value at the given position
+	 * @throws IndexOutOfBoundsException if the index is outside of this slice
+	 */
+	public int get(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index " + index + " out of slice with size " + length);
+		}
+		return data[offset + index];
+	}
+
+	public void forEach(IntConsumer consumer) {
+		for (int i = offset, end = offset + length; i < end; i++) {
+			consumer.accept(data[i]);
+		}
+	}
+
+	public IntStream stream() {
+		return Arrays.stream(data, offset, offset + length);
+	}
+
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+
+			private int index = offset;
+
+			@Override
+			public boolean hasNext() {
+				return index < offset + length;
+			}
+
+			@Override
+			public int nextInt() {
+				if (index >= offset + length) throw new NoSuchElementException();
+				return data[index++];
+			}
+		};
+	}
+
+	/**
+	 * @return a copy of the values of this slice
+	 */
+	public int[] toArray() {
+		return Arrays.copyOfRange(data, offset, offset + length);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+}
@@ -0,0 +1,48 @@
+package io.searchhub.mph;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Verification checksums and build-time checks for long and byte[] keys.
+ * The checksums use other seeds than the hash functions, so they stay independent of the slot of a key.
+ */
+final class KeyChecksums {
+
+	private static final long CHECKSUM_SEED = MPHUtil.FINGERPRINT_SEED;
+
+	private KeyChecksums() {
+	}
+
+	static int of(long key) {
+		return (int) CharSequenceHash.mix64(key ^ CHECKSUM_SEED);
+	}
+
+	static int of(byte[] key) {
+		return (int) ByteArrayHash.hash(key, CHECKSUM_SEED);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if a key occurs more than once
+	 */
+	static void checkUnique(long[] keys) {
+		long[] sortedKeys = keys.clone();
+		Arrays.sort(sortedKeys);
+		for (int i = 1; i < sortedKeys.length; i++) {
+			if (sortedKeys[i] == sortedKeys[i - 1]) throw new IllegalArgumentException("duplicate key " + sortedKeys[i]);
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if two keys have the same content
+	 */
+	static void checkUnique(Collection<byte[]> keys) {
+		Set<ByteBuffer> uniqueKeys = new HashSet<>(keys.size() * 2);
+		for (byte[] key : keys) {
+			if (!uniqueKeys.add(ByteBuffer.wrap(key))) throw new IllegalArgumentException("duplicate key " + Arrays.toString(key));
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package io.searchhub.mph;
+
+/**
+ * Normalization steps that can be fixed for a collection at build time.
+ * Keys are normalized while building and every lookup key is normalized the same way on the fly, so raw queries can be passed in directly.
+ * <p>
+ * The steps are always applied in this order: unicode normalization (NFC or NFKC), trimming and lower-casing.
+ * </p>
+ */
+public enum KeyNormalization {
+	/**
+	 * Unicode normalization form C. Only allocates for lookup keys that contain non-ASCII chars and are not normalized yet.
+	 */
+	NFC,
+	/**
+	 * Unicode normalization form KC. Only allocates for lookup keys that contain non-ASCII chars and are not normalized yet.
+	 */
+	NFKC,
+	/**
+	 * Removes leading and trailing chars up to the space char, same as {@link String#trim()}.
+	 */
+	TRIM,
+	/**
+	 * Lower-cases each char with {@link Character#toLowerCase(char)}. Different to {@link String#toLowerCase()}, this never changes the length.
+	 */
+	LOWER_CASE
+}
@@ -0,0 +1,150 @@
+package io.searchhub.mph;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Applies a fixed set of {@link KeyNormalization} steps.
+ * For lookups it provides a reusable per-thread {@link NormalizedKey} view, that normalizes the chars while they are hashed.
+ */
+final class KeyNormalizer {
+
+	private final Normalizer.Form unicodeForm;
+	private final boolean         trim;
+	private final boolean         lowerCase;
+
+	private final ThreadLocal<NormalizedKey> reusableKey = ThreadLocal.withInitial(NormalizedKey::new);
+
+	/**
+	 * @return normalizer or null if no normalization is set
+	 * @throws IllegalArgumentException if more than one unicode normalization form is set
+	 */
+	static KeyNormalizer of(Set<KeyNormalization> keyNormalization) {
+		if (keyNormalization == null || keyNormalization.isEmpty()) return null;
+		if (keyNormalization.contains(KeyNormalization.NFC) && keyNormalization.contains(KeyNormalization.NFKC)) {
+			throw new IllegalArgumentException("only one unicode normalization form can be used");
+		}
+		return new KeyNormalizer(keyNormalization);
+	}
+
+	private KeyNormalizer(Set<KeyNormalization> keyNormalization) {
+		unicodeForm = keyNormalization.contains(KeyNormalization.NFC) ? Normalizer.Form.NFC : keyNormalization.contains(KeyNormalization.NFKC) ? Normalizer.Form.NFKC : null;
+		trim = keyNormalization.contains(KeyNormalization.TRIM);
+		lowerCase = keyNormalization.contains(KeyNormalization.LOWER_CASE);
+	}
+
+	/**
+	 * Normalize a lookup key. The returned instance is reused by the calling thread for the next call, so it must not be kept.
+	 */
+	NormalizedKey normalize(String key) {
+		return reusableKey.get().reset(key, unicodeForm, trim, lowerCase);
+	}
+
+	/**
+	 * Normalize a key into a new string, used at build time.
+	 */
+	String normalizeToString(String key) {
+		return new NormalizedKey().reset(key, unicodeForm, trim, lowerCase).toString();
+	}
+
+	/**
+	 * Normalize all keys at build time.
+	 *
+	 * @return the normalized keys in iteration order of the given keys
+	 * @throws IllegalArgumentException if two keys are equal after normalization
+	 */
+	List<CharSequence> normalizeAll(Collection<String> keys) {
+		List<CharSequence> normalizedKeys = new ArrayList<>(keys.size());
+		Set<String> uniqueKeys = new HashSet<>(keys.size() * 2);
+		for (String key : keys) {
+			String normalizedKey = normalizeToString(key);
+			if (!uniqueKeys.add(normalizedKey)) {
+				throw new IllegalArgumentException("key '" + key + "' is a duplicate after normalization: '" + normalizedKey + "'");
+			}
+			normalizedKeys.add(normalizedKey);
+		}
+		return normalizedKeys;
+	}
+
+	/**
+	 * Mutable view on a normalized key. Its {@link #hashCode()} equals the hashCode of the normalized string.
+	 */
+	static final class NormalizedKey implements CharSequence {
+
+		private String  source;
+		private int     start;
+		private int     end;
+		private boolean lowerCase;
+
+		NormalizedKey reset(String key, Normalizer.Form unicodeForm, boolean trim, boolean lowerCase) {
+			String source = key;
+			if (unicodeForm != null && !isAscii(key) && !Normalizer.isNormalized(key, unicodeForm)) {
+				source = Normalizer.normalize(key, unicodeForm);
+			}
+			int start = 0, end = source.length();
+			if (trim) {
+				while (start < end && source.charAt(start) <= ' ') start++;
+				while (end > start && source.charAt(end - 1) <= ' ') end--;
+			}
+			this.source = source;
+			this.start = start;
+			this.end = end;
+			this.lowerCase = lowerCase;
+			return this;
+		}
+
+		private static boolean isAscii(String key) {
+			for (int i = 0; i < key.length(); i++) {
+				if (key.charAt(i) >= 0x80) return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		@Override
+		public char charAt(int index) {
+			char c = source.charAt(start + index);
+			return lowerCase ? Character.toLowerCase(c) : c;
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().subSequence(start, end);
+		}
+
+		@Override
+		public int hashCode() {
+			int h = 0;
+			for (int i = start; i < end; i++) {
+				char c = source.charAt(i);
+				h = 31 * h + (lowerCase ? Character.toLowerCase(c) : c);
+			}
+			return h;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof NormalizedKey)) return false;
+			NormalizedKey other = (NormalizedKey) o;
+			if (length() != other.length()) return false;
+			for (int i = 0; i < length(); i++) {
+				if (charAt(i) != other.charAt(i)) return false;
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			char[] chars = new char[length()];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = charAt(i);
+			}
+			return new String(chars);
+		}
+	}
+}
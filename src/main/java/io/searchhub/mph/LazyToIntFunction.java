@@ -0,0 +1,45 @@
+package io.searchhub.mph;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Defers the creation of a hash function (i.e. building the RecSplit evaluator) until its first use.
+ * The creation is done once under a lock, afterwards each call is a single volatile read plus the delegation.
+ */
+final class LazyToIntFunction<T> implements ToIntFunction<T> {
+
+	private final    Supplier<ToIntFunction<T>> factory;
+	private volatile ToIntFunction<T>           delegate;
+
+	LazyToIntFunction(Supplier<ToIntFunction<T>> factory) {
+		this.factory = factory;
+	}
+
+	@Override
+	public int applyAsInt(T key) {
+		ToIntFunction<T> function = delegate;
+		if (function == null) {
+			function = initialize();
+		}
+		return function.applyAsInt(key);
+	}
+
+	private synchronized ToIntFunction<T> initialize() {
+		if (delegate == null) {
+			delegate = factory.get();
+		}
+		return delegate;
+	}
+
+	boolean isInitialized() {
+		return delegate != null;
+	}
+
+	/**
+	 * @return false if the function is a lazy function that was not created yet
+	 */
+	static boolean isBuilt(ToIntFunction<?> function) {
+		return !(function instanceof LazyToIntFunction) || ((LazyToIntFunction<?>) function).isInitialized();
+	}
+}
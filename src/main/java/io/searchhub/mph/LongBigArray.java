@@ -0,0 +1,80 @@
+package io.searchhub.mph;
+
+import java.util.Arrays;
+
+/**
+ * Array of longs that is indexed by long and stored in fixed size chunks, so it is not limited to 2^31 entries and
+ * does not need one huge contiguous allocation.
+ */
+final class LongBigArray {
+
+	static final int DEFAULT_CHUNK_BITS = 24;
+
+	private final long[][] chunks;
+	private final int      chunkBits;
+	private final int      chunkMask;
+	private final long     length;
+
+	LongBigArray(long length) {
+		this(length, DEFAULT_CHUNK_BITS);
+	}
+
+	LongBigArray(long length, int chunkBits) {
+		if (length < 0) throw new IllegalArgumentException("negative length " + length);
+		if (chunkBits < 1 || chunkBits > 30) throw new IllegalArgumentException("chunkBits must be in the range [1, 30]");
+		this.chunkBits = chunkBits;
+		this.chunkMask = (1 << chunkBits) - 1;
+		this.length = length;
+		long chunkCount = (length + chunkMask) >>> chunkBits;
+		if (chunkCount > Integer.MAX_VALUE) throw new IllegalArgumentException("length " + length + " too large for chunkBits " + chunkBits);
+		chunks = new long[(int) chunkCount][];
+		for (int i = 0; i < chunks.length; i++) {
+			long chunkStart = (long) i << chunkBits;
+			chunks[i] = new long[(int) Math.min(1L << chunkBits, length - chunkStart)];
+		}
+	}
+
+	/**
+	 * Wrap existing chunks, e.g. after deserialization. All chunks except the last must have the size 2^chunkBits.
+	 *
+	 * @throws IllegalArgumentException if the chunk sizes do not match
+	 */
+	LongBigArray(long[][] chunks, int chunkBits) {
+		this.chunks = chunks;
+		this.chunkBits = chunkBits;
+		this.chunkMask = (1 << chunkBits) - 1;
+		long totalLength = 0;
+		for (int i = 0; i < chunks.length; i++) {
+			if (i < chunks.length - 1 ? chunks[i].length != 1 << chunkBits : chunks[i].length > 1 << chunkBits) {
+				throw new IllegalArgumentException("chunk " + i + " has invalid length " + chunks[i].length);
+			}
+			totalLength += chunks[i].length;
+		}
+		this.length = totalLength;
+	}
+
+	long get(long index) {
+		return chunks[(int) (index >>> chunkBits)][(int) index & chunkMask];
+	}
+
+	void set(long index, long value) {
+		chunks[(int) (index >>> chunkBits)][(int) index & chunkMask] = value;
+	}
+
+	long length() {
+		return length;
+	}
+
+	int getChunkBits() {
+		return chunkBits;
+	}
+
+	long[][] getChunks() {
+		return chunks;
+	}
+
+	@Override
+	public String toString() {
+		return "LongBigArray[length=" + length + ", chunks=" + chunks.length + "x" + (1 << chunkBits) + "]" + (length <= 16 && chunks.length == 1 ? Arrays.toString(chunks[0]) : "");
+	}
+}
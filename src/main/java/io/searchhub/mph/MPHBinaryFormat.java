@@ -0,0 +1,153 @@
+package io.searchhub.mph;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Compact binary format for sets and int maps, written and read without reflection.
+ * <p>
+ * Unlike Java serialization or Jackson, this path needs no reflection metadata, so it also works unchanged in a
+ * GraalVM native image. All numbers are written big endian by {@link DataOutput}.
+ * </p>
+ */
+public final class MPHBinaryFormat {
+
+	// "MPH" + format version
+	private static final int MAGIC = 0x4D504801;
+
+	private static final byte TYPE_STRING_SET     = 1;
+	private static final byte TYPE_STRING_INT_MAP = 2;
+
+	// the largest array size most JVMs support
+	private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+	// larger arrays grow while they are read, so a corrupt length fails at the end of the input instead of allocating it
+	private static final int INITIAL_ARRAY_LENGTH = 1 << 16;
+
+	private MPHBinaryFormat() {
+	}
+
+	public static void write(MPHStringSet set, DataOutput out) throws IOException {
+		MPHStringSet.SerializableData data = set.toSerializable();
+		writeHeader(out, TYPE_STRING_SET, data.leafSize, data.avgBucketSize, data.mphFunctionData);
+		Set<KeyNormalization> keyNormalization = data.keyNormalization;
+		out.writeInt(keyNormalization == null ? 0 : keyNormalization.size());
+		if (keyNormalization != null) {
+			for (KeyNormalization step : keyNormalization) {
+				out.writeUTF(step.name());
+			}
+		}
+		out.writeInt(data.secondaryHashes.length);
+		for (int secondaryHash : data.secondaryHashes) {
+			out.writeInt(secondaryHash);
+		}
+	}
+
+	/**
+	 * @throws IOException if the input is no string set in this format, or it is truncated or corrupt
+	 */
+	public static MPHStringSet readStringSet(DataInput in) throws IOException {
+		readHeader(in, TYPE_STRING_SET);
+		int leafSize = in.readInt();
+		int avgBucketSize = in.readInt();
+		byte[] mphFunctionData = readBytes(in);
+		int keyNormalizationCount = readLength(in, KeyNormalization.values().length, "key normalization");
+		Set<KeyNormalization> keyNormalization = keyNormalizationCount == 0 ? null : EnumSet.noneOf(KeyNormalization.class);
+		for (int i = 0; i < keyNormalizationCount; i++) {
+			String step = in.readUTF();
+			try {
+				keyNormalization.add(KeyNormalization.valueOf(step));
+			}
+			catch (IllegalArgumentException e) {
+				throw new IOException("unknown key normalization " + step, e);
+			}
+		}
+		int[] secondaryHashes = readInts(in);
+		return new MPHStringSet(new MPHStringSet.SerializableData(leafSize, avgBucketSize, mphFunctionData, secondaryHashes, keyNormalization));
+	}
+
+	public static void write(MPHStringIntMap map, DataOutput out) throws IOException {
+		MPHStringIntMap.SerializableData data = map.getSerializableMphMapData();
+		writeHeader(out, TYPE_STRING_INT_MAP, data.leafSize, data.avgBucketSize, data.mphFunctionData);
+		out.writeInt(data.valueMap.length);
+		for (long valueEntry : data.valueMap) {
+			out.writeLong(valueEntry);
+		}
+	}
+
+	/**
+	 * @throws IOException if the input is no int map in this format, or it is truncated or corrupt
+	 */
+	public static MPHStringIntMap readStringIntMap(DataInput in) throws IOException {
+		readHeader(in, TYPE_STRING_INT_MAP);
+		int leafSize = in.readInt();
+		int avgBucketSize = in.readInt();
+		byte[] mphFunctionData = readBytes(in);
+		long[] valueMap = readLongs(in);
+		return MPHStringIntMap.fromData(new MPHStringIntMap.SerializableData(leafSize, avgBucketSize, mphFunctionData, valueMap));
+	}
+
+	private static void writeHeader(DataOutput out, byte type, int leafSize, int avgBucketSize, byte[] mphFunctionData) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeByte(type);
+		out.writeInt(leafSize);
+		out.writeInt(avgBucketSize);
+		out.writeInt(mphFunctionData.length);
+		out.write(mphFunctionData);
+	}
+
+	private static void readHeader(DataInput in, byte expectedType) throws IOException {
+		int magic = in.readInt();
+		if (magic != MAGIC) throw new IOException("unsupported format " + Integer.toHexString(magic));
+		byte type = in.readByte();
+		if (type != expectedType) throw new IOException("expected collection type " + expectedType + " but found " + type);
+	}
+
+	/**
+	 * @throws IOException if the length is negative or larger than the maximum
+	 */
+	private static int readLength(DataInput in, int maxLength, String name) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > maxLength) throw new IOException("invalid " + name + " length " + length);
+		return length;
+	}
+
+	private static int grownLength(int currentLength, int length) {
+		return (int) Math.min(length, currentLength * 2L);
+	}
+
+	private static byte[] readBytes(DataInput in) throws IOException {
+		int length = readLength(in, MAX_ARRAY_LENGTH, "byte array");
+		byte[] bytes = new byte[Math.min(length, INITIAL_ARRAY_LENGTH)];
+		int read = 0;
+		while (read < length) {
+			if (read == bytes.length) bytes = Arrays.copyOf(bytes, grownLength(bytes.length, length));
+			in.readFully(bytes, read, bytes.length - read);
+			read = bytes.length;
+		}
+		return bytes;
+	}
+
+	private static int[] readInts(DataInput in) throws IOException {
+		int length = readLength(in, MAX_ARRAY_LENGTH, "int array");
+		int[] ints = new int[Math.min(length, INITIAL_ARRAY_LENGTH)];
+		for (int i = 0; i < length; i++) {
+			if (i == ints.length) ints = Arrays.copyOf(ints, grownLength(ints.length, length));
+			ints[i] = in.readInt();
+		}
+		return ints;
+	}
+
+	private static long[] readLongs(DataInput in) throws IOException {
+		int length = readLength(in, MAX_ARRAY_LENGTH, "long array");
+		long[] longs = new long[Math.min(length, INITIAL_ARRAY_LENGTH)];
+		for (int i = 0; i < length; i++) {
+			if (i == longs.length) longs = Arrays.copyOf(longs, grownLength(longs.length, length));
+			longs[i] = in.readLong();
+		}
+		return longs;
+	}
+}
@@ -0,0 +1,148 @@
+package io.searchhub.mph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.minperf.RecSplitEvaluator;
+import org.minperf.universal.StringHash;
+
+/**
+ * Local disk cache for generated hash function data, addressed by the content of the key-set.
+ * <p>
+ * The cache key is an order-independent digest of the key-set plus the leafSize and avgBucketSize parameters. If a
+ * collection is rebuilt with the same keys but different values, the function data is read from disk instead of
+ * being generated again. Cached data is verified against the keys before it is used, so a digest collision or a
+ * corrupt file only costs the regular generation.
+ * </p>
+ * <p>
+ * Once set as default with {@link #setDefault(MPHBuildCache)}, all builders of string keyed collections use it.
+ * The cache is best-effort: I/O errors while reading or writing are ignored and the function data is generated.
+ * </p>
+ */
+public final class MPHBuildCache {
+
+	private static final String FILE_SUFFIX = ".mph";
+
+	private static volatile MPHBuildCache defaultCache;
+
+	private final Path directory;
+
+	private final LongAdder hits   = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param directory directory for the cache files, created if it does not exist
+	 * @throws UncheckedIOException if the directory can not be created
+	 */
+	public MPHBuildCache(Path directory) {
+		try {
+			this.directory = Files.createDirectories(directory);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("can not create cache directory " + directory, e);
+		}
+	}
+
+	/**
+	 * @param cache the cache used by all builders or null to disable caching
+	 */
+	public static void setDefault(MPHBuildCache cache) {
+		defaultCache = cache;
+	}
+
+	/**
+	 * @return the cache used by all builders or null
+	 */
+	public static MPHBuildCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * Order-independent digest of the key-set: the sums of two independent 64 bit hashes of each key, plus the key count.
+	 * Since sets contain no duplicates, no key can cancel out another one.
+	 */
+	static String digest(Set<String> keys, int leafSize, int avgBucketSize) {
+		long sum1 = 0, sum2 = 0;
+		for (String key : keys) {
+			sum1 += StringHash.getSipHash24(key, 0x6A09E667F3BCC908L, 0xBB67AE8584CAA73BL);
+			sum2 += StringHash.getSipHash24(key, 0x3C6EF372FE94F82BL, 0xA54FF53A5F1D36F1L);
+		}
+		return String.format("v1-%016x%016x-%d-%d-%d", sum1, sum2, keys.size(), leafSize, avgBucketSize);
+	}
+
+	byte[] getMphFunctionData(int leafSize, int avgBucketSize, Set<String> keys) {
+		Path file = directory.resolve(digest(keys, leafSize, avgBucketSize) + FILE_SUFFIX);
+		byte[] cached = read(file);
+		if (cached != null && isValid(cached, leafSize, avgBucketSize, keys)) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+		byte[] mphFunctionData = MPHUtil.generateMphFunctionData(leafSize, avgBucketSize, keys);
+		write(file, mphFunctionData);
+		return mphFunctionData;
+	}
+
+	private static byte[] read(Path file) {
+		try {
+			return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+		}
+		catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static void write(Path file, byte[] mphFunctionData) {
+		Path tempFile = null;
+		try {
+			// concurrent builders of the same key-set write equal content, so the last move wins harmlessly
+			tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+			Files.write(tempFile, mphFunctionData);
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			try {
+				if (tempFile != null) Files.deleteIfExists(tempFile);
+			}
+			catch (IOException ignored) {
+				// nothing left to do, the file is only garbage in the cache directory
+			}
+		}
+	}
+
+	/**
+	 * The function data is only valid for the keys if it maps them to distinct slots in the range [0, size).
+	 */
+	private static boolean isValid(byte[] mphFunctionData, int leafSize, int avgBucketSize, Set<String> keys) {
+		try {
+			RecSplitEvaluator<String> evaluator = MPHUtil.buildEvaluator(leafSize, avgBucketSize, mphFunctionData);
+			BitSet usedSlots = new BitSet(keys.size());
+			for (String key : keys) {
+				int slot = evaluator.evaluate(key);
+				if (slot < 0 || slot >= keys.size() || usedSlots.get(slot)) return false;
+				usedSlots.set(slot);
+			}
+			return true;
+		}
+		catch (RuntimeException e) {
+			// corrupt data
+			return false;
+		}
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+}
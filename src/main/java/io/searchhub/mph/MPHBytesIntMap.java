@@ -0,0 +1,103 @@
+package io.searchhub.mph;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+import static io.searchhub.mph.MPHUtil.getByteArrayMphFunctionData;
+
+/**
+ * Immutable map from byte array keys to int values, the byte array keyed counterpart of {@link MPHStringIntMap}.
+ * Keys are compared by content and not stored, unknown keys are excluded with a 32 bit checksum per key.
+ * <p>Reads are thread-safe and lock-free.</p>
+ */
+public class MPHBytesIntMap {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		private static final long serialVersionUID = 1_000L;
+
+		int    leafSize;
+		int    avgBucketSize;
+		byte[] mphFunctionData;
+		// this array contains the verification-hash (32bit) + the actual stored integer value (32bit)
+		long[] valueMap;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if two keys have the same content
+	 */
+	public static MPHBytesIntMap build(Collection<byte[]> keys, ToIntFunction<byte[]> valueLookup) {
+		KeyChecksums.checkUnique(keys);
+		int leafSize = 8, avgBucketSize = 32;
+		long[] valueMap = new long[keys.size()];
+		byte[] mphFunctionData = keys.isEmpty() ? new byte[0] : getByteArrayMphFunctionData(leafSize, avgBucketSize, keys);
+		SerializableData data = new SerializableData(leafSize, avgBucketSize, mphFunctionData, valueMap);
+		ToIntFunction<byte[]> mphFunction = MPHBytesSet.createMphFunction(leafSize, avgBucketSize, mphFunctionData);
+		for (byte[] key : keys) {
+			valueMap[mphFunction.applyAsInt(key)] = ((long) KeyChecksums.of(key) << 32) | (valueLookup.applyAsInt(key) & 0xFFFFFFFFL);
+		}
+		return new MPHBytesIntMap(mphFunction, data);
+	}
+
+	public static MPHBytesIntMap fromData(SerializableData data) {
+		return new MPHBytesIntMap(MPHBytesSet.createMphFunction(data.leafSize, data.avgBucketSize, data.mphFunctionData), data);
+	}
+
+	private MPHBytesIntMap(ToIntFunction<byte[]> mphFunction, SerializableData data) {
+		this.serializableMphMapData = data;
+		this.mphFunction = mphFunction;
+		this.valueMap = data.valueMap;
+	}
+
+	@Getter
+	private final SerializableData      serializableMphMapData;
+	private final ToIntFunction<byte[]> mphFunction;
+	private final long[]                valueMap;
+
+	private int slot(byte[] key) {
+		int slot = mphFunction.applyAsInt(key);
+		return slot >= 0 && (int) (valueMap[slot] >>> 32) == KeyChecksums.of(key) ? slot : -1;
+	}
+
+	public boolean containsKey(byte[] key) {
+		return slot(key) >= 0;
+	}
+
+	/**
+	 * @return the value of the key or the default value if the key is unknown
+	 */
+	public int getOrDefault(byte[] key, int defaultValue) {
+		int slot = slot(key);
+		// last 32 bits are the value itself
+		return slot >= 0 ? (int) valueMap[slot] : defaultValue;
+	}
+
+	/**
+	 * @return the value of the key or null if the key is unknown
+	 */
+	public Integer get(byte[] key) {
+		int slot = slot(key);
+		return slot >= 0 ? (int) valueMap[slot] : null;
+	}
+
+	public int size() {
+		return valueMap.length;
+	}
+
+	public boolean isEmpty() {
+		return valueMap.length == 0;
+	}
+}
@@ -0,0 +1,109 @@
+package io.searchhub.mph;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import static io.searchhub.mph.MPHUtil.getByteArrayMphFunctionData;
+
+/**
+ * Immutable map from byte array keys to any values, the byte array keyed counterpart of {@link MPHStringMap}.
+ * Keys are compared by content and not stored, unknown keys are excluded with a 32 bit checksum per key.
+ * <p>Reads are thread-safe and lock-free.</p>
+ *
+ * @param <V>
+ */
+public class MPHBytesMap<V> {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData<V> implements Serializable {
+
+		static final long serialVersionUID = 1_000L;
+
+		int     leafSize;
+		int     avgBucketSize;
+		byte[]  mphFunctionData;
+		int[]   checksums;
+		// the value of each slot
+		List<V> values;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if two keys have the same content
+	 */
+	public static <V> MPHBytesMap<V> build(Collection<byte[]> keys, Function<byte[], V> valueLookup) {
+		KeyChecksums.checkUnique(keys);
+		int leafSize = 8, avgBucketSize = 32;
+		int[] checksums = new int[keys.size()];
+		List<V> values = new ArrayList<>(Collections.nCopies(keys.size(), null));
+		byte[] mphFunctionData = keys.isEmpty() ? new byte[0] : getByteArrayMphFunctionData(leafSize, avgBucketSize, keys);
+		SerializableData<V> data = new SerializableData<>(leafSize, avgBucketSize, mphFunctionData, checksums, values);
+		ToIntFunction<byte[]> mphFunction = MPHBytesSet.createMphFunction(leafSize, avgBucketSize, mphFunctionData);
+		for (byte[] key : keys) {
+			int slot = mphFunction.applyAsInt(key);
+			checksums[slot] = KeyChecksums.of(key);
+			values.set(slot, valueLookup.apply(key));
+		}
+		return new MPHBytesMap<>(mphFunction, data);
+	}
+
+	public static <V> MPHBytesMap<V> fromData(SerializableData<V> data) {
+		return new MPHBytesMap<>(MPHBytesSet.createMphFunction(data.leafSize, data.avgBucketSize, data.mphFunctionData), data);
+	}
+
+	private MPHBytesMap(ToIntFunction<byte[]> mphFunction, SerializableData<V> data) {
+		this.serializableMphMapData = data;
+		this.mphFunction = mphFunction;
+		this.checksums = data.checksums;
+		this.values = data.values;
+	}
+
+	@Getter
+	private final SerializableData<V>   serializableMphMapData;
+	private final ToIntFunction<byte[]> mphFunction;
+	private final int[]                 checksums;
+	private final List<V>               values;
+
+	private int slot(byte[] key) {
+		int slot = mphFunction.applyAsInt(key);
+		return slot >= 0 && checksums[slot] == KeyChecksums.of(key) ? slot : -1;
+	}
+
+	public boolean containsKey(byte[] key) {
+		return slot(key) >= 0;
+	}
+
+	/**
+	 * @return the value of the key or null if the key is unknown
+	 */
+	public V get(byte[] key) {
+		int slot = slot(key);
+		return slot >= 0 ? values.get(slot) : null;
+	}
+
+	/**
+	 * @return unmodifiable view on the values in slot order
+	 */
+	public Collection<V> values() {
+		return Collections.unmodifiableList(values);
+	}
+
+	public int size() {
+		return checksums.length;
+	}
+
+	public boolean isEmpty() {
+		return checksums.length == 0;
+	}
+}
@@ -0,0 +1,86 @@
+package io.searchhub.mph;
+
+import static io.searchhub.mph.MPHUtil.buildByteArrayEvaluator;
+import static io.searchhub.mph.MPHUtil.getByteArrayMphFunctionData;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+/**
+ * Unmodifiable set of byte array keys, e.g. binary digests, compared by content. Same characteristics as {@link MPHStringSet}:
+ * keys are not stored, unknown keys are excluded with a 32 bit checksum per key.
+ * <p>Once constructed, the set can be queried by any number of threads without synchronization.</p>
+ */
+public class MPHBytesSet {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		static final long serialVersionUID = 1_000L;
+
+		int    leafSize;
+		int    avgBucketSize;
+		byte[] mphFunctionData;
+		int[]  checksums;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if two keys have the same content
+	 */
+	public static MPHBytesSet build(Collection<byte[]> keys) {
+		KeyChecksums.checkUnique(keys);
+		int leafSize = 8, avgBucketSize = 32;
+		int[] checksums = new int[keys.size()];
+		byte[] mphFunctionData = keys.isEmpty() ? new byte[0] : getByteArrayMphFunctionData(leafSize, avgBucketSize, keys);
+		SerializableData data = new SerializableData(leafSize, avgBucketSize, mphFunctionData, checksums);
+		ToIntFunction<byte[]> mphFunction = createMphFunction(leafSize, avgBucketSize, mphFunctionData);
+		for (byte[] key : keys) {
+			checksums[mphFunction.applyAsInt(key)] = KeyChecksums.of(key);
+		}
+		return new MPHBytesSet(mphFunction, data);
+	}
+
+	public static MPHBytesSet fromData(SerializableData data) {
+		return new MPHBytesSet(createMphFunction(data.leafSize, data.avgBucketSize, data.mphFunctionData), data);
+	}
+
+	static ToIntFunction<byte[]> createMphFunction(int leafSize, int avgBucketSize, byte[] mphFunctionData) {
+		return mphFunctionData.length == 0 ? key -> -1 : buildByteArrayEvaluator(leafSize, avgBucketSize, mphFunctionData)::evaluate;
+	}
+
+	private MPHBytesSet(ToIntFunction<byte[]> mphFunction, SerializableData data) {
+		this.serializableData = data;
+		this.mphFunction = mphFunction;
+		this.checksums = data.checksums;
+	}
+
+	@Getter
+	private final SerializableData      serializableData;
+	private final ToIntFunction<byte[]> mphFunction;
+	private final int[]                 checksums;
+
+	public boolean contains(byte[] key) {
+		int slot = mphFunction.applyAsInt(key);
+		return slot >= 0 && checksums[slot] == KeyChecksums.of(key);
+	}
+
+	public int size() {
+		return checksums.length;
+	}
+
+	public boolean isEmpty() {
+		return checksums.length == 0;
+	}
+}
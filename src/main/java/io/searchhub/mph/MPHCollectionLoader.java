@@ -0,0 +1,149 @@
+package io.searchhub.mph;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Loads a catalog of serialized collections in parallel on a bounded thread pool.
+ * <p>
+ * For each entry the serialized data is read (e.g. parsed with Jackson) and the collection is created from it.
+ * Optionally the hash function evaluators are not built at load time but on the first lookup of each collection,
+ * so rarely used collections cost nothing up front.
+ * </p>
+ * <pre>
+ * Map&lt;String, MPHCollectionLoader.LoadResult&lt;?&gt;&gt; results = new MPHCollectionLoader(8, true)
+ *         .addStringMap("de_DE", () -&gt; objectMapper.readValue(deFile, MPHStringMap.SerializableData.class))
+ *         .addStringIntMap("en_US", () -&gt; objectMapper.readValue(usFile, MPHStringIntMap.SerializableData.class))
+ *         .loadAll();
+ * </pre>
+ * A failing entry does not stop the others, its failure is reported with its {@link LoadResult}.
+ */
+public class MPHCollectionLoader {
+
+	private final int     parallelism;
+	private final boolean deferEvaluatorBuild;
+
+	private final Map<String, Callable<LoadResult<?>>> catalog = new LinkedHashMap<>();
+
+	/**
+	 * @param parallelism         maximum number of collections loaded at the same time
+	 * @param deferEvaluatorBuild if true, hash function evaluators are built on the first lookup instead of while loading
+	 */
+	public MPHCollectionLoader(int parallelism, boolean deferEvaluatorBuild) {
+		if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+		this.parallelism = parallelism;
+		this.deferEvaluatorBuild = deferEvaluatorBuild;
+	}
+
+	@Getter
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class LoadResult<T> {
+
+		private final String    name;
+		// null if loading failed
+		private final T         collection;
+		// null if loading succeeded
+		private final Exception failure;
+		private final long      readNanos;
+		private final long      createNanos;
+
+		public boolean isSuccess() {
+			return failure == null;
+		}
+
+		public long getLoadTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(readNanos + createNanos);
+		}
+	}
+
+	/**
+	 * Add any collection to the catalog.
+	 *
+	 * @param name       unique name of the collection
+	 * @param dataReader reads the serialized data
+	 * @param factory    creates the collection from the data. The second parameter tells if the evaluator build should be deferred.
+	 * @throws IllegalArgumentException if the name is already used
+	 */
+	public <D, T> MPHCollectionLoader add(String name, Callable<D> dataReader, BiFunction<D, Boolean, T> factory) {
+		if (catalog.containsKey(name)) throw new IllegalArgumentException("collection '" + name + "' already added");
+		catalog.put(name, () -> {
+			long start = System.nanoTime();
+			D data;
+			try {
+				data = dataReader.call();
+			}
+			catch (Exception e) {
+				return new LoadResult<T>(name, null, e, System.nanoTime() - start, 0);
+			}
+			long readNanos = System.nanoTime() - start;
+			start = System.nanoTime();
+			try {
+				T collection = factory.apply(data, deferEvaluatorBuild);
+				return new LoadResult<>(name, collection, null, readNanos, System.nanoTime() - start);
+			}
+			catch (Exception e) {
+				return new LoadResult<T>(name, null, e, readNanos, System.nanoTime() - start);
+			}
+		});
+		return this;
+	}
+
+	public <V> MPHCollectionLoader addStringMap(String name, Callable<MPHStringMap.SerializableData<V>> dataReader) {
+		return add(name, dataReader, MPHStringMap::fromData);
+	}
+
+	public MPHCollectionLoader addStringIntMap(String name, Callable<MPHStringIntMap.SerializableData> dataReader) {
+		return add(name, dataReader, MPHStringIntMap::fromData);
+	}
+
+	public MPHCollectionLoader addStringSet(String name, Callable<MPHStringSet.SerializableData> dataReader) {
+		return add(name, dataReader, MPHStringSet::new);
+	}
+
+	/**
+	 * Loads all collections of the catalog and waits until all are done.
+	 *
+	 * @return load results by name, in the order they were added
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public Map<String, LoadResult<?>> loadAll() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, catalog.size())), new LoaderThreadFactory());
+		try {
+			Map<String, Future<LoadResult<?>>> futures = new LinkedHashMap<>();
+			catalog.forEach((name, task) -> futures.put(name, executor.submit(task)));
+
+			Map<String, LoadResult<?>> results = new LinkedHashMap<>();
+			for (Map.Entry<String, Future<LoadResult<?>>> future : futures.entrySet()) {
+				try {
+					results.put(future.getKey(), future.getValue().get());
+				}
+				catch (ExecutionException e) {
+					// only errors can get here, since the task itself catches exceptions
+					throw new IllegalStateException("loading '" + future.getKey() + "' failed", e.getCause());
+				}
+			}
+			return results;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static final class LoaderThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "mph-loader-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package io.searchhub.mph;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free cache of resolved lookups in front of a MPH collection, intended for skewed (Zipfian) traffic.
+ * <p>
+ * Each key is cached in exactly one slot, chosen by its hash, so a cached key resolves with a single probe and a string
+ * comparison instead of the hash function evaluation. Eviction follows the CLOCK idea per slot: a hit marks the slot as
+ * referenced, and a competing key only replaces a slot that was not referenced since its last replacement attempt.
+ * This way one-off keys do not push out hot keys.
+ * </p>
+ * <p>
+ * Keys and indexes are kept in parallel arrays, so neither lookups nor replacements allocate. Each slot has a version
+ * stamp that is odd while a writer replaces the slot; readers only accept a key and index pair read under the same even
+ * stamp, so they never see a key with the index of another key. Concurrent writers of the same slot skip instead of
+ * waiting, which only affects the hit rate, never the results.
+ * </p>
+ * <p>
+ * Hit statistics are only recorded if requested, because the shared counters are updated on every lookup.
+ * </p>
+ */
+public final class MPHFrontCache {
+
+	static final int NOT_CACHED = Integer.MIN_VALUE;
+
+	private final AtomicReferenceArray<String> keys;
+	private final AtomicIntegerArray           indexes;
+	private final AtomicIntegerArray           stamps;
+	// benign race: only influences which key gets evicted
+	private final boolean[]                    referenced;
+	private final int                          mask;
+
+	private final LongAdder hits;
+	private final LongAdder misses;
+
+	/**
+	 * @param capacity maximum number of cached keys, rounded up to the next power of two
+	 * @param recordStats true to count hits and misses
+	 */
+	MPHFrontCache(int capacity, boolean recordStats) {
+		if (capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException("capacity must be in the range [1, 2^30]");
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) size <<= 1;
+		keys = new AtomicReferenceArray<>(size);
+		indexes = new AtomicIntegerArray(size);
+		stamps = new AtomicIntegerArray(size);
+		referenced = new boolean[size];
+		mask = size - 1;
+		hits = recordStats ? new LongAdder() : null;
+		misses = recordStats ? new LongAdder() : null;
+	}
+
+	private int slot(String key) {
+		int hash = key.hashCode() * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	/**
+	 * @return the cached index of the key or NOT_CACHED
+	 */
+	int get(String key) {
+		int slot = slot(key);
+		int stamp = stamps.get(slot);
+		if ((stamp & 1) == 0) {
+			String cachedKey = keys.get(slot);
+			int index = indexes.get(slot);
+			if (stamps.get(slot) == stamp && cachedKey != null && (cachedKey == key || cachedKey.equals(key))) {
+				if (!referenced[slot]) referenced[slot] = true;
+				if (hits != null) hits.increment();
+				return index;
+			}
+		}
+		if (misses != null) misses.increment();
+		return NOT_CACHED;
+	}
+
+	void offer(String key, int index) {
+		int slot = slot(key);
+		if (referenced[slot]) {
+			// second chance for the current key
+			referenced[slot] = false;
+			return;
+		}
+		int stamp = stamps.get(slot);
+		// another writer replaces the slot right now
+		if ((stamp & 1) != 0 || !stamps.compareAndSet(slot, stamp, stamp + 1)) return;
+		keys.set(slot, key);
+		indexes.set(slot, index);
+		stamps.set(slot, stamp + 2);
+	}
+
+	public int getCapacity() {
+		return keys.length();
+	}
+
+	/**
+	 * @return true if hits and misses are counted
+	 */
+	public boolean isRecordingStats() {
+		return hits != null;
+	}
+
+	/**
+	 * @return number of lookups answered by the cache, 0 if stats are not recorded
+	 */
+	public long getHits() {
+		return hits == null ? 0 : hits.sum();
+	}
+
+	/**
+	 * @return number of lookups not answered by the cache, 0 if stats are not recorded
+	 */
+	public long getMisses() {
+		return misses == null ? 0 : misses.sum();
+	}
+
+	/**
+	 * @return ratio of lookups answered by the cache, 0 if there was no lookup yet or stats are not recorded
+	 */
+	public double getHitRate() {
+		long hitCount = getHits();
+		long total = hitCount + getMisses();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	public void resetStats() {
+		if (hits == null) return;
+		hits.reset();
+		misses.reset();
+	}
+}
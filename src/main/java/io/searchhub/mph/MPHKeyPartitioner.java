@@ -0,0 +1,55 @@
+package io.searchhub.mph;
+
+import java.io.Serializable;
+
+/**
+ * Stable assignment of string keys to a fixed number of partitions.
+ * <p>
+ * The hash does not depend on the JVM, the minperf version or the String.hashCode implementation, so builder and serving
+ * nodes always agree on the owner of a key. Each partition covers a contiguous range of the 32 bit key hash space.
+ * </p>
+ */
+public final class MPHKeyPartitioner implements Serializable {
+
+	private static final long serialVersionUID = 1_000L;
+
+	private static final long PARTITION_HASH_SEED = 0x2545F4914F6CDD1DL;
+
+	private final int partitionCount;
+
+	public MPHKeyPartitioner(int partitionCount) {
+		if (partitionCount < 1) throw new IllegalArgumentException("partitionCount must be positive");
+		this.partitionCount = partitionCount;
+	}
+
+	public int getPartitionCount() {
+		return partitionCount;
+	}
+
+	/**
+	 * @return the partition that owns the given key, in the range [0, partitionCount)
+	 */
+	public int partitionOf(CharSequence key) {
+		long hash = CharSequenceHash.hash(key, PARTITION_HASH_SEED);
+		// multiply-shift maps the upper 32 bits to contiguous ranges
+		return (int) (((hash >>> 32) * partitionCount) >>> 32);
+	}
+
+	/**
+	 * Distribute all partitions over a number of nodes, so that each node serves a contiguous range of partitions.
+	 *
+	 * @param node      index of the node, in the range [0, nodeCount)
+	 * @param nodeCount number of nodes
+	 * @return the partitions assigned to that node, may be empty if there are more nodes than partitions
+	 */
+	public int[] partitionsOfNode(int node, int nodeCount) {
+		if (node < 0 || node >= nodeCount) throw new IllegalArgumentException("node " + node + " out of range [0, " + nodeCount + ")");
+		int from = (int) ((long) node * partitionCount / nodeCount);
+		int to = (int) ((long) (node + 1) * partitionCount / nodeCount);
+		int[] partitions = new int[to - from];
+		for (int i = 0; i < partitions.length; i++) {
+			partitions[i] = from + i;
+		}
+		return partitions;
+	}
+}
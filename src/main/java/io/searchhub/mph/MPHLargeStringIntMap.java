@@ -0,0 +1,213 @@
+package io.searchhub.mph;
+
+import static io.searchhub.mph.MPHUtil.buildEvaluator;
+import static io.searchhub.mph.MPHUtil.getMphFunctionData;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.minperf.RecSplitEvaluator;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable string to int map for key sets beyond the 2^31 limit of a single MPH function and Java array.
+ * <p>
+ * Keys are split into shards by a {@link MPHKeyPartitioner}. Each shard has its own minimal perfect hash function, and the
+ * slot of a key is the offset of its shard plus the slot within the shard, so all indices are longs. The verification
+ * hash and the value of each key are stored in one chunked array instead of a single {@code long[]}.
+ * </p>
+ * <p>
+ * Like {@link MPHStringIntMap}, keys are not stored, so unknown keys are excluded with a 32 bit checksum.
+ * The map does not implement {@link Map}, since its size may not fit into an int.
+ * </p>
+ * <p>
+ * Reads are thread-safe and lock-free.
+ * </p>
+ */
+public class MPHLargeStringIntMap {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		private static final long serialVersionUID = 1_000L;
+
+		int       leafSize;
+		int       avgBucketSize;
+		// one hash function per shard
+		byte[][]  shardMphFunctionData;
+		// first slot of each shard, the last entry is the total size
+		long[]    shardOffsets;
+		int       chunkBits;
+		// the verification-hash (32bit) + the actual stored integer value (32bit), split into chunks
+		long[][]  valueChunks;
+	}
+
+	/**
+	 * Collects the entries per shard and builds the shards in parallel.
+	 * Entries are buffered in a key list and a primitive value array per shard, so the builder is not thread-safe.
+	 */
+	public static final class Builder {
+
+		private static final class ShardBuffer {
+
+			final List<String> keys   = new ArrayList<>();
+			int[]              values = new int[16];
+
+			void add(String key, int value) {
+				if (keys.size() == values.length) values = Arrays.copyOf(values, values.length * 2);
+				values[keys.size()] = value;
+				keys.add(key);
+			}
+		}
+
+		private final MPHKeyPartitioner partitioner;
+		private final ShardBuffer[]     shards;
+		private       int               chunkBits = LongBigArray.DEFAULT_CHUNK_BITS;
+
+		private Builder(int shardCount) {
+			partitioner = new MPHKeyPartitioner(shardCount);
+			shards = new ShardBuffer[shardCount];
+			for (int i = 0; i < shardCount; i++) {
+				shards[i] = new ShardBuffer();
+			}
+		}
+
+		public Builder put(String key, int value) {
+			shards[partitioner.partitionOf(key)].add(key, value);
+			return this;
+		}
+
+		public Builder putAll(Map<String, Integer> entries) {
+			entries.forEach(this::put);
+			return this;
+		}
+
+		/**
+		 * @param chunkBits the value storage is split into chunks of 2^chunkBits entries
+		 */
+		public Builder chunkBits(int chunkBits) {
+			this.chunkBits = chunkBits;
+			return this;
+		}
+
+		/**
+		 * @throws IllegalArgumentException if a key was put more than once
+		 * @throws IllegalStateException if a shard exceeds the 2^31 keys of a single MPH function
+		 */
+		public MPHLargeStringIntMap build() {
+			int leafSize = 8, avgBucketSize = 32;
+			long[] shardOffsets = new long[shards.length + 1];
+			for (int i = 0; i < shards.length; i++) {
+				shardOffsets[i + 1] = shardOffsets[i] + shards[i].keys.size();
+			}
+			LongBigArray valueArray = new LongBigArray(shardOffsets[shards.length], chunkBits);
+			byte[][] shardMphFunctionData = new byte[shards.length][];
+
+			// shards write to disjoint ranges of the value array
+			IntStream.range(0, shards.length).parallel().forEach(shard -> {
+				List<String> keys = shards[shard].keys;
+				int[] values = shards[shard].values;
+				if (keys.isEmpty()) {
+					shardMphFunctionData[shard] = new byte[0];
+					return;
+				}
+				Set<String> keySet = new HashSet<>(keys);
+				if (keySet.size() != keys.size()) throw new IllegalArgumentException("duplicate key in shard " + shard);
+				shardMphFunctionData[shard] = getMphFunctionData(leafSize, avgBucketSize, keySet);
+				RecSplitEvaluator<String> evaluator = buildEvaluator(leafSize, avgBucketSize, shardMphFunctionData[shard]);
+				for (int i = 0; i < keys.size(); i++) {
+					String key = keys.get(i);
+					valueArray.set(shardOffsets[shard] + evaluator.evaluate(key), getVerifiableValue(key, values[i]));
+				}
+			});
+			return fromData(new SerializableData(leafSize, avgBucketSize, shardMphFunctionData, shardOffsets, chunkBits, valueArray.getChunks()));
+		}
+	}
+
+	/**
+	 * @param shardCount number of independent hash functions. Each shard must stay below 2^31 keys,
+	 *                   for build time and memory it is better to keep shards in the range of a few million keys.
+	 */
+	public static Builder builder(int shardCount) {
+		return new Builder(shardCount);
+	}
+
+	public static MPHLargeStringIntMap fromData(SerializableData data) {
+		return new MPHLargeStringIntMap(data);
+	}
+
+	private MPHLargeStringIntMap(SerializableData data) {
+		this.serializableMphMapData = data;
+		this.partitioner = new MPHKeyPartitioner(data.shardMphFunctionData.length);
+		this.shardOffsets = data.shardOffsets;
+		this.valueArray = new LongBigArray(data.valueChunks, data.chunkBits);
+		this.shardFunctions = new ArrayList<>(data.shardMphFunctionData.length);
+		for (byte[] functionData : data.shardMphFunctionData) {
+			shardFunctions.add(functionData.length == 0 ? MPHUtil.EMPTY_MAP_FUNCTION : buildEvaluator(data.leafSize, data.avgBucketSize, functionData)::evaluate);
+		}
+	}
+
+	@Getter
+	private final SerializableData            serializableMphMapData;
+	private final MPHKeyPartitioner           partitioner;
+	private final List<ToIntFunction<String>> shardFunctions;
+	private final long[]                      shardOffsets;
+	private final LongBigArray                valueArray;
+
+	private static long getVerifiableValue(String originalKey, int value) {
+		long encoded = originalKey.hashCode();
+		encoded <<= 32;
+		encoded |= value & 0xFFFFFFFFL;
+		return encoded;
+	}
+
+	/**
+	 * @return the verified slot of the key in the range [0, size) or -1 if the key is unknown
+	 */
+	public long index(String key) {
+		int shard = partitioner.partitionOf(key);
+		int localIndex = shardFunctions.get(shard).applyAsInt(key);
+		if (localIndex < 0) return -1;
+		long index = shardOffsets[shard] + localIndex;
+		int keyChecksum = (int) (valueArray.get(index) >>> 32);
+		return keyChecksum == key.hashCode() ? index : -1;
+	}
+
+	public boolean containsKey(String key) {
+		return index(key) >= 0;
+	}
+
+	/**
+	 * @return the value of the key or null if the key is unknown
+	 */
+	public Integer get(String key) {
+		long index = index(key);
+		return index >= 0 ? (int) valueArray.get(index) : null;
+	}
+
+	/**
+	 * @return the value of the key or the default value if the key is unknown
+	 */
+	public int getOrDefault(String key, int defaultValue) {
+		long index = index(key);
+		return index >= 0 ? (int) valueArray.get(index) : defaultValue;
+	}
+
+	public long size() {
+		return shardOffsets[shardOffsets.length - 1];
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int shardCount() {
+		return shardFunctions.size();
+	}
+}
@@ -0,0 +1,112 @@
+package io.searchhub.mph;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.LongToIntFunction;
+
+import static io.searchhub.mph.MPHUtil.getLongMphFunctionData;
+
+/**
+ * Immutable map from primitive long keys to int values, the long keyed counterpart of {@link MPHStringIntMap}.
+ * Keys are not stored, unknown keys are excluded with a 32 bit checksum per key.
+ * <p>Reads are thread-safe and lock-free.</p>
+ */
+public class MPHLongIntMap {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		private static final long serialVersionUID = 1_000L;
+
+		int    leafSize;
+		int    avgBucketSize;
+		byte[] mphFunctionData;
+		// this array contains the verification-hash (32bit) + the actual stored integer value (32bit)
+		long[] valueMap;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	public static MPHLongIntMap build(Map<Long, Integer> inputData) {
+		long[] keys = new long[inputData.size()];
+		int i = 0;
+		for (Long key : inputData.keySet()) {
+			keys[i++] = key;
+		}
+		return build(keys, inputData::get);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if a key occurs more than once
+	 */
+	public static MPHLongIntMap build(long[] keys, LongToIntFunction valueLookup) {
+		KeyChecksums.checkUnique(keys);
+		int leafSize = 8, avgBucketSize = 32;
+		long[] valueMap = new long[keys.length];
+		byte[] mphFunctionData = keys.length == 0 ? new byte[0] : getLongMphFunctionData(leafSize, avgBucketSize, keys);
+		SerializableData data = new SerializableData(leafSize, avgBucketSize, mphFunctionData, valueMap);
+		LongToIntFunction mphFunction = MPHLongSet.createMphFunction(leafSize, avgBucketSize, mphFunctionData);
+		for (long key : keys) {
+			valueMap[mphFunction.applyAsInt(key)] = ((long) KeyChecksums.of(key) << 32) | (valueLookup.applyAsInt(key) & 0xFFFFFFFFL);
+		}
+		return new MPHLongIntMap(mphFunction, data);
+	}
+
+	public static MPHLongIntMap fromData(SerializableData data) {
+		return new MPHLongIntMap(MPHLongSet.createMphFunction(data.leafSize, data.avgBucketSize, data.mphFunctionData), data);
+	}
+
+	private MPHLongIntMap(LongToIntFunction mphFunction, SerializableData data) {
+		this.serializableMphMapData = data;
+		this.mphFunction = mphFunction;
+		this.valueMap = data.valueMap;
+	}
+
+	@Getter
+	private final SerializableData  serializableMphMapData;
+	private final LongToIntFunction mphFunction;
+	private final long[]            valueMap;
+
+	private int slot(long key) {
+		int slot = mphFunction.applyAsInt(key);
+		return slot >= 0 && (int) (valueMap[slot] >>> 32) == KeyChecksums.of(key) ? slot : -1;
+	}
+
+	public boolean containsKey(long key) {
+		return slot(key) >= 0;
+	}
+
+	/**
+	 * @return the value of the key or the default value if the key is unknown
+	 */
+	public int getOrDefault(long key, int defaultValue) {
+		int slot = slot(key);
+		// last 32 bits are the value itself
+		return slot >= 0 ? (int) valueMap[slot] : defaultValue;
+	}
+
+	/**
+	 * @return the value of the key or null if the key is unknown
+	 */
+	public Integer get(long key) {
+		int slot = slot(key);
+		return slot >= 0 ? (int) valueMap[slot] : null;
+	}
+
+	public int size() {
+		return valueMap.length;
+	}
+
+	public boolean isEmpty() {
+		return valueMap.length == 0;
+	}
+}
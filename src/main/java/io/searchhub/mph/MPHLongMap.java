@@ -0,0 +1,118 @@
+package io.searchhub.mph;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.LongFunction;
+import java.util.function.LongToIntFunction;
+
+import static io.searchhub.mph.MPHUtil.getLongMphFunctionData;
+
+/**
+ * Immutable map from primitive long keys to any values, the long keyed counterpart of {@link MPHStringMap}.
+ * Keys are not stored, unknown keys are excluded with a 32 bit checksum per key.
+ * <p>Reads are thread-safe and lock-free.</p>
+ *
+ * @param <V>
+ */
+public class MPHLongMap<V> {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData<V> implements Serializable {
+
+		static final long serialVersionUID = 1_000L;
+
+		int     leafSize;
+		int     avgBucketSize;
+		byte[]  mphFunctionData;
+		int[]   checksums;
+		// the value of each slot
+		List<V> values;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	public static <V> MPHLongMap<V> build(Map<Long, V> inputData) {
+		long[] keys = new long[inputData.size()];
+		int i = 0;
+		for (Long key : inputData.keySet()) {
+			keys[i++] = key;
+		}
+		return build(keys, inputData::get);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if a key occurs more than once
+	 */
+	public static <V> MPHLongMap<V> build(long[] keys, LongFunction<V> valueLookup) {
+		KeyChecksums.checkUnique(keys);
+		int leafSize = 8, avgBucketSize = 32;
+		int[] checksums = new int[keys.length];
+		List<V> values = new ArrayList<>(Collections.nCopies(keys.length, null));
+		byte[] mphFunctionData = keys.length == 0 ? new byte[0] : getLongMphFunctionData(leafSize, avgBucketSize, keys);
+		SerializableData<V> data = new SerializableData<>(leafSize, avgBucketSize, mphFunctionData, checksums, values);
+		LongToIntFunction mphFunction = MPHLongSet.createMphFunction(leafSize, avgBucketSize, mphFunctionData);
+		for (long key : keys) {
+			int slot = mphFunction.applyAsInt(key);
+			checksums[slot] = KeyChecksums.of(key);
+			values.set(slot, valueLookup.apply(key));
+		}
+		return new MPHLongMap<>(mphFunction, data);
+	}
+
+	public static <V> MPHLongMap<V> fromData(SerializableData<V> data) {
+		return new MPHLongMap<>(MPHLongSet.createMphFunction(data.leafSize, data.avgBucketSize, data.mphFunctionData), data);
+	}
+
+	private MPHLongMap(LongToIntFunction mphFunction, SerializableData<V> data) {
+		this.serializableMphMapData = data;
+		this.mphFunction = mphFunction;
+		this.checksums = data.checksums;
+		this.values = data.values;
+	}
+
+	@Getter
+	private final SerializableData<V> serializableMphMapData;
+	private final LongToIntFunction   mphFunction;
+	private final int[]               checksums;
+	private final List<V>             values;
+
+	private int slot(long key) {
+		int slot = mphFunction.applyAsInt(key);
+		return slot >= 0 && checksums[slot] == KeyChecksums.of(key) ? slot : -1;
+	}
+
+	public boolean containsKey(long key) {
+		return slot(key) >= 0;
+	}
+
+	/**
+	 * @return the value of the key or null if the key is unknown
+	 */
+	public V get(long key) {
+		int slot = slot(key);
+		return slot >= 0 ? values.get(slot) : null;
+	}
+
+	/**
+	 * @return unmodifiable view on the values in slot order
+	 */
+	public Collection<V> values() {
+		return Collections.unmodifiableList(values);
+	}
+
+	public int size() {
+		return checksums.length;
+	}
+
+	public boolean isEmpty() {
+		return checksums.length == 0;
+	}
+}
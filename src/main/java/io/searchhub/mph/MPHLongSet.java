@@ -0,0 +1,92 @@
+package io.searchhub.mph;
+
+import static io.searchhub.mph.MPHUtil.buildLongEvaluator;
+import static io.searchhub.mph.MPHUtil.getLongMphFunctionData;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.minperf.RecSplitEvaluator;
+
+import java.io.Serializable;
+import java.util.Base64;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Unmodifiable set of primitive long keys, e.g. numeric product IDs, with the same characteristics as {@link MPHStringSet}:
+ * keys are not stored, unknown keys are excluded with a 32 bit checksum per key.
+ * <p>Once constructed, the set can be queried by any number of threads without synchronization.</p>
+ */
+public class MPHLongSet {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		static final long serialVersionUID = 1_000L;
+
+		int    leafSize;
+		int    avgBucketSize;
+		byte[] mphFunctionData;
+		int[]  checksums;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if a key occurs more than once
+	 */
+	public static MPHLongSet build(long... keys) {
+		KeyChecksums.checkUnique(keys);
+		int leafSize = 8, avgBucketSize = 32;
+		int[] checksums = new int[keys.length];
+		byte[] mphFunctionData = keys.length == 0 ? new byte[0] : getLongMphFunctionData(leafSize, avgBucketSize, keys);
+		SerializableData data = new SerializableData(leafSize, avgBucketSize, mphFunctionData, checksums);
+		LongToIntFunction mphFunction = createMphFunction(data);
+		for (long key : keys) {
+			checksums[mphFunction.applyAsInt(key)] = KeyChecksums.of(key);
+		}
+		return new MPHLongSet(mphFunction, data);
+	}
+
+	public static MPHLongSet fromData(SerializableData data) {
+		return new MPHLongSet(createMphFunction(data), data);
+	}
+
+	static LongToIntFunction createMphFunction(int leafSize, int avgBucketSize, byte[] mphFunctionData) {
+		if (mphFunctionData.length == 0) return key -> -1;
+		RecSplitEvaluator<Long> evaluator = buildLongEvaluator(leafSize, avgBucketSize, mphFunctionData);
+		return evaluator::evaluate;
+	}
+
+	private static LongToIntFunction createMphFunction(SerializableData data) {
+		return createMphFunction(data.leafSize, data.avgBucketSize, data.mphFunctionData);
+	}
+
+	private MPHLongSet(LongToIntFunction mphFunction, SerializableData data) {
+		this.serializableData = data;
+		this.mphFunction = mphFunction;
+		this.checksums = data.checksums;
+	}
+
+	@Getter
+	private final SerializableData  serializableData;
+	private final LongToIntFunction mphFunction;
+	private final int[]             checksums;
+
+	public boolean contains(long key) {
+		int slot = mphFunction.applyAsInt(key);
+		return slot >= 0 && checksums[slot] == KeyChecksums.of(key);
+	}
+
+	public int size() {
+		return checksums.length;
+	}
+
+	public boolean isEmpty() {
+		return checksums.length == 0;
+	}
+}
@@ -0,0 +1,160 @@
+package io.searchhub.mph;
+
+import static io.searchhub.mph.MPHUtil.buildEvaluator;
+import static io.searchhub.mph.MPHUtil.getMphFunctionData;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Answers the membership of a key in up to 64 string sets with a single lookup.
+ * <p>
+ * One minimal perfect hash function is built over the union of all keys. Per key a 32 bit fingerprint and a 64 bit
+ * membership mask are stored, where bit i is set if the key is contained in the i-th set. Compared to separate
+ * {@link MPHStringSet}s this needs one hash function evaluation per lookup instead of one per set, and each key is
+ * indexed once no matter how many sets contain it.
+ * </p>
+ * <p>Like MPHStringSet, the keys are not stored. Once constructed, the index can be queried by any number of threads without synchronization.</p>
+ */
+public class MPHMembershipIndex {
+
+	public static final int MAX_SET_COUNT = Long.SIZE;
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		static final long serialVersionUID = 1_000L;
+
+		int          leafSize;
+		int          avgBucketSize;
+		byte[]       mphFunctionData;
+		int[]        fingerprints;
+		long[]       membershipMasks;
+		// set names in bit order
+		List<String> setNames;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	/**
+	 * @param sets the sets by name. The iteration order defines the bit of each set in the membership mask.
+	 * @throws IllegalArgumentException if there are more than 64 sets
+	 */
+	public static MPHMembershipIndex build(Map<String, ? extends Set<String>> sets) {
+		if (sets.size() > MAX_SET_COUNT) throw new IllegalArgumentException("at most " + MAX_SET_COUNT + " sets are supported, got " + sets.size());
+		List<String> setNames = new ArrayList<>(sets.keySet());
+		Map<String, Long> masks = new HashMap<>();
+		int bit = 0;
+		for (Set<String> set : sets.values()) {
+			long setBit = 1L << bit++;
+			for (String key : set) {
+				masks.merge(key, setBit, (a, b) -> a | b);
+			}
+		}
+
+		int leafSize = 8, avgBucketSize = 32;
+		int[] fingerprints = new int[masks.size()];
+		long[] membershipMasks = new long[masks.size()];
+		if (masks.isEmpty()) {
+			return new MPHMembershipIndex(new SerializableData(leafSize, avgBucketSize, new byte[0], fingerprints, membershipMasks, setNames));
+		}
+		byte[] mphFunctionData = getMphFunctionData(leafSize, avgBucketSize, masks.keySet());
+		SerializableData data = new SerializableData(leafSize, avgBucketSize, mphFunctionData, fingerprints, membershipMasks, setNames);
+		ToIntFunction<String> mphFunction = createMphFunction(data);
+		masks.forEach((key, mask) -> {
+			int keyIndex = mphFunction.applyAsInt(key);
+			fingerprints[keyIndex] = MPHUtil.keyFingerprint(key);
+			membershipMasks[keyIndex] = mask;
+		});
+		return new MPHMembershipIndex(mphFunction, data);
+	}
+
+	public static MPHMembershipIndex fromData(SerializableData data) {
+		return new MPHMembershipIndex(data);
+	}
+
+	private static ToIntFunction<String> createMphFunction(SerializableData data) {
+		return (data.mphFunctionData.length == 0) ? MPHUtil.EMPTY_MAP_FUNCTION : buildEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData)::evaluate;
+	}
+
+	private MPHMembershipIndex(SerializableData data) {
+		this(createMphFunction(data), data);
+	}
+
+	private MPHMembershipIndex(ToIntFunction<String> mphFunction, SerializableData data) {
+		this.serializableData = data;
+		this.mphFunction = mphFunction;
+		this.fingerprints = data.fingerprints;
+		this.membershipMasks = data.membershipMasks;
+		this.setNames = Collections.unmodifiableList(data.setNames);
+	}
+
+	@Getter
+	private final SerializableData      serializableData;
+	private final ToIntFunction<String> mphFunction;
+	private final int[]                 fingerprints;
+	private final long[]                membershipMasks;
+	private final List<String>          setNames;
+
+	/**
+	 * @return mask with bit i set if the key is contained in the set with index i, 0 if the key is in no set
+	 */
+	public long membership(String key) {
+		int keyIndex = mphFunction.applyAsInt(key);
+		if (keyIndex < 0 || fingerprints[keyIndex] != MPHUtil.keyFingerprint(key)) return 0L;
+		return membershipMasks[keyIndex];
+	}
+
+	/**
+	 * @return true if the key is contained in the set with the given index
+	 * @throws IllegalArgumentException if the set index is not within [0, number of sets)
+	 */
+	public boolean isMember(String key, int setIndex) {
+		if (setIndex < 0 || setIndex >= setNames.size()) throw new IllegalArgumentException("set index " + setIndex + " out of range [0, " + setNames.size() + ")");
+		return (membership(key) & (1L << setIndex)) != 0;
+	}
+
+	/**
+	 * @return names of all sets that contain the key, in set order
+	 */
+	public List<String> setNamesOf(String key) {
+		long mask = membership(key);
+		if (mask == 0) return Collections.emptyList();
+		List<String> names = new ArrayList<>(Long.bitCount(mask));
+		while (mask != 0) {
+			names.add(setNames.get(Long.numberOfTrailingZeros(mask)));
+			mask &= mask - 1;
+		}
+		return names;
+	}
+
+	/**
+	 * @return index of the set with the given name or -1 if there is no such set
+	 */
+	public int setIndex(String setName) {
+		return setNames.indexOf(setName);
+	}
+
+	/**
+	 * @return names of the indexed sets in bit order
+	 */
+	public List<String> getSetNames() {
+		return setNames;
+	}
+
+	/**
+	 * @return number of distinct keys over all sets
+	 */
+	public int size() {
+		return fingerprints.length;
+	}
+}
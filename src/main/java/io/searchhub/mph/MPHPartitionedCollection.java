@@ -0,0 +1,110 @@
+package io.searchhub.mph;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Collection that is split by a {@link MPHKeyPartitioner} into independently built and serialized partitions.
+ * <p>
+ * The builder creates all partitions. Each partition is then serialized on its own (e.g. with
+ * {@link MPHStringMap#getSerializableMphMapData()}), so a serving node only loads the partitions it is assigned to.
+ * </p>
+ * <pre>
+ * MPHPartitionedCollection&lt;MPHStringIntMap&gt; all = MPHPartitionedCollection.buildStringIntMaps(data, 64);
+ * // on each node:
+ * int[] assigned = partitioner.partitionsOfNode(node, nodeCount);
+ * MPHPartitionedCollection&lt;MPHStringIntMap&gt; local = MPHPartitionedCollection.ofPartitions(partitioner, loadedPartitions);
+ * MPHStringIntMap partition = local.partitionFor(query); // null if another node owns the query
+ * </pre>
+ *
+ * @param <T> type of the partitions
+ */
+public class MPHPartitionedCollection<T> {
+
+	private final MPHKeyPartitioner partitioner;
+	// null entries for partitions that are not loaded
+	private final List<T>           partitions;
+
+	private MPHPartitionedCollection(MPHKeyPartitioner partitioner, List<T> partitions) {
+		this.partitioner = partitioner;
+		this.partitions = partitions;
+	}
+
+	/**
+	 * Split the keys into partitions and build one collection per partition.
+	 *
+	 * @param keys           all keys
+	 * @param partitionCount number of partitions
+	 * @param builder        builds the collection of a partition from the keys of that partition
+	 */
+	public static <T> MPHPartitionedCollection<T> build(Set<String> keys, int partitionCount, Function<Set<String>, T> builder) {
+		MPHKeyPartitioner partitioner = new MPHKeyPartitioner(partitionCount);
+		List<Set<String>> partitionKeys = new ArrayList<>(partitionCount);
+		for (int i = 0; i < partitionCount; i++) {
+			partitionKeys.add(new HashSet<>());
+		}
+		for (String key : keys) {
+			partitionKeys.get(partitioner.partitionOf(key)).add(key);
+		}
+		List<T> partitions = new ArrayList<>(partitionCount);
+		for (Set<String> keysOfPartition : partitionKeys) {
+			partitions.add(builder.apply(keysOfPartition));
+		}
+		return new MPHPartitionedCollection<>(partitioner, partitions);
+	}
+
+	public static <V> MPHPartitionedCollection<MPHStringMap<V>> buildStringMaps(Map<String, V> inputData, int partitionCount) {
+		return build(inputData.keySet(), partitionCount, keys -> MPHStringMap.build(keys, inputData::get, keys.size()));
+	}
+
+	public static MPHPartitionedCollection<MPHStringIntMap> buildStringIntMaps(Map<String, Integer> inputData, int partitionCount) {
+		return build(inputData.keySet(), partitionCount, keys -> MPHStringIntMap.build(keys, inputData::get));
+	}
+
+	/**
+	 * Combine the loaded partitions of a node.
+	 *
+	 * @param partitioner      partitioner with the partition count used at build time
+	 * @param loadedPartitions the loaded partitions by partition index
+	 * @throws IllegalArgumentException if a partition index is out of range
+	 */
+	public static <T> MPHPartitionedCollection<T> ofPartitions(MPHKeyPartitioner partitioner, Map<Integer, T> loadedPartitions) {
+		List<T> partitions = new ArrayList<>(Collections.nCopies(partitioner.getPartitionCount(), null));
+		loadedPartitions.forEach((partition, collection) -> {
+			if (partition < 0 || partition >= partitions.size()) {
+				throw new IllegalArgumentException("partition " + partition + " out of range [0, " + partitions.size() + ")");
+			}
+			partitions.set(partition, collection);
+		});
+		return new MPHPartitionedCollection<>(partitioner, partitions);
+	}
+
+	public MPHKeyPartitioner getPartitioner() {
+		return partitioner;
+	}
+
+	/**
+	 * @return the partition that owns the key or null if that partition is not loaded
+	 */
+	public T partitionFor(String key) {
+		return partitions.get(partitioner.partitionOf(key));
+	}
+
+	/**
+	 * @return the partition with the given index or null if it is not loaded
+	 */
+	public T getPartition(int partition) {
+		return partitions.get(partition);
+	}
+
+	public boolean isLoaded(int partition) {
+		return partitions.get(partition) != null;
+	}
+
+	/**
+	 * @return true if the partition that owns the key is loaded
+	 */
+	public boolean ownsKey(String key) {
+		return partitionFor(key) != null;
+	}
+}
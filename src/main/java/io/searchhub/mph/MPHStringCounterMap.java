@@ -0,0 +1,188 @@
+package io.searchhub.mph;
+
+import static io.searchhub.mph.MPHUtil.buildEvaluator;
+import static io.searchhub.mph.MPHUtil.getMphFunctionData;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
+
+/**
+ * Map with a fixed key-set and mutable long values, e.g. to count impressions per known query.
+ * <p>
+ * The keys and the hash function are immutable like in {@link MPHStringIntMap}, only the values are stored in an
+ * {@link AtomicLongArray}. All updates are lock-free and there is no rehashing. Keys that are not part of the key-set
+ * can not be added. As with the other maps, unknown keys are excluded by a 32 bit checksum.
+ * </p>
+ * <p>
+ * The slot layout is the one of MPHStringIntMap, so a counter map can be started from a MPHStringIntMap and exported
+ * into one without building a new hash function.
+ * </p>
+ */
+public class MPHStringCounterMap {
+
+	private final int                   leafSize;
+	private final int                   avgBucketSize;
+	private final byte[]                mphFunctionData;
+	private final ToIntFunction<String> mphFunction;
+	private final int[]                 keyChecksums;
+	private final AtomicLongArray       values;
+
+	/**
+	 * Create a counter map with all values set to 0.
+	 */
+	public static MPHStringCounterMap build(Set<String> keys) {
+		int leafSize = 8, avgBucketSize = 32;
+		if (keys.isEmpty()) return new MPHStringCounterMap(leafSize, avgBucketSize, new byte[0], MPHUtil.EMPTY_MAP_FUNCTION, new int[0]);
+		byte[] mphFunctionData = getMphFunctionData(leafSize, avgBucketSize, keys);
+		ToIntFunction<String> mphFunction = buildEvaluator(leafSize, avgBucketSize, mphFunctionData)::evaluate;
+		int[] keyChecksums = new int[keys.size()];
+		for (String key : keys) {
+			keyChecksums[mphFunction.applyAsInt(key)] = key.hashCode();
+		}
+		return new MPHStringCounterMap(leafSize, avgBucketSize, mphFunctionData, mphFunction, keyChecksums);
+	}
+
+	/**
+	 * Create a counter map with the keys and values of a serialized MPHStringIntMap.
+	 */
+	public static MPHStringCounterMap fromData(MPHStringIntMap.SerializableData data) {
+		ToIntFunction<String> mphFunction = data.mphFunctionData.length == 0 ? MPHUtil.EMPTY_MAP_FUNCTION : buildEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData)::evaluate;
+		int[] keyChecksums = new int[data.valueMap.length];
+		for (int i = 0; i < keyChecksums.length; i++) {
+			keyChecksums[i] = (int) (data.valueMap[i] >>> 32);
+		}
+		MPHStringCounterMap counterMap = new MPHStringCounterMap(data.leafSize, data.avgBucketSize, data.mphFunctionData, mphFunction, keyChecksums);
+		for (int i = 0; i < keyChecksums.length; i++) {
+			counterMap.values.set(i, (int) data.valueMap[i]);
+		}
+		return counterMap;
+	}
+
+	private MPHStringCounterMap(int leafSize, int avgBucketSize, byte[] mphFunctionData, ToIntFunction<String> mphFunction, int[] keyChecksums) {
+		this.leafSize = leafSize;
+		this.avgBucketSize = avgBucketSize;
+		this.mphFunctionData = mphFunctionData;
+		this.mphFunction = mphFunction;
+		this.keyChecksums = keyChecksums;
+		this.values = new AtomicLongArray(keyChecksums.length);
+	}
+
+	private int slot(String key) {
+		int slot = mphFunction.applyAsInt(key);
+		return slot >= 0 && keyChecksums[slot] == key.hashCode() ? slot : -1;
+	}
+
+	private int knownSlot(String key) {
+		int slot = slot(key);
+		if (slot < 0) throw new IllegalArgumentException("key '" + key + "' is not part of the key-set");
+		return slot;
+	}
+
+	public boolean containsKey(String key) {
+		return slot(key) >= 0;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the key is not part of the key-set
+	 */
+	public long get(String key) {
+		return values.get(knownSlot(key));
+	}
+
+	public long getOrDefault(String key, long defaultValue) {
+		int slot = slot(key);
+		return slot >= 0 ? values.get(slot) : defaultValue;
+	}
+
+	/**
+	 * Increment the value of the key by one, if the key is part of the key-set.
+	 *
+	 * @return true if the key is known and was incremented
+	 */
+	public boolean increment(String key) {
+		return add(key, 1);
+	}
+
+	/**
+	 * Add the delta to the value of the key, if the key is part of the key-set.
+	 *
+	 * @return true if the key is known and the delta was added
+	 */
+	public boolean add(String key, long delta) {
+		int slot = slot(key);
+		if (slot < 0) return false;
+		values.getAndAdd(slot, delta);
+		return true;
+	}
+
+	/**
+	 * @return the updated value
+	 * @throws IllegalArgumentException if the key is not part of the key-set
+	 */
+	public long addAndGet(String key, long delta) {
+		return values.addAndGet(knownSlot(key), delta);
+	}
+
+	/**
+	 * @return true if the value was equal to the expected value and is now set to the update
+	 * @throws IllegalArgumentException if the key is not part of the key-set
+	 */
+	public boolean compareAndSet(String key, long expect, long update) {
+		return values.compareAndSet(knownSlot(key), expect, update);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the key is not part of the key-set
+	 */
+	public void set(String key, long value) {
+		values.set(knownSlot(key), value);
+	}
+
+	public int size() {
+		return keyChecksums.length;
+	}
+
+	/**
+	 * Export the current values into an immutable map that shares the hash function data.
+	 * Each value is read atomically, but concurrent updates may be included for some keys and not for others.
+	 *
+	 * @throws ArithmeticException if a value does not fit into an int
+	 */
+	public MPHStringIntMap snapshot() {
+		return export(false);
+	}
+
+	/**
+	 * Export the current values into an immutable map and reset all values to 0.
+	 * Each value is swapped atomically, so every concurrent update is either part of this snapshot or remains in this map.
+	 *
+	 * @throws ArithmeticException if a value does not fit into an int. All values are kept in that case.
+	 */
+	public MPHStringIntMap snapshotAndReset() {
+		return export(true);
+	}
+
+	private MPHStringIntMap export(boolean reset) {
+		long[] valueMap = new long[keyChecksums.length];
+		for (int i = 0; i < valueMap.length; i++) {
+			long value = reset ? values.getAndSet(i, 0) : values.get(i);
+			int intValue;
+			try {
+				intValue = Math.toIntExact(value);
+			}
+			catch (ArithmeticException e) {
+				if (reset) {
+					// give back what was already taken, concurrent updates are kept by adding instead of setting
+					values.addAndGet(i, value);
+					for (int j = 0; j < i; j++) {
+						values.addAndGet(j, (int) valueMap[j]);
+					}
+				}
+				throw e;
+			}
+			valueMap[i] = ((long) keyChecksums[i] << 32) | (intValue & 0xFFFFFFFFL);
+		}
+		return MPHStringIntMap.fromData(new MPHStringIntMap.SerializableData(leafSize, avgBucketSize, mphFunctionData, valueMap));
+	}
+}
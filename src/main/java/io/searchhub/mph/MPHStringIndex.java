@@ -0,0 +1,93 @@
+package io.searchhub.mph;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Maps each key of a fixed key-set to a dense ordinal in the range [0, size).
+ * <p>
+ * The ordinal is the slot of the minimal perfect hash function, verified with a 32 bit fingerprint so unknown keys
+ * return -1 (except for the rare fingerprint collision). The data has the layout of a {@link MPHStringSet}.
+ * It can be used to index own primitive arrays, bitsets or atomic arrays, so several attributes share one hash
+ * function instead of one map each:
+ * </p>
+ * <pre>
+ * MPHStringIndex index = MPHStringIndex.build(queries);
+ * float[] ctr = new float[index.size()];
+ * ctr[index.ordinal("running shoes")] = 0.12f;
+ * </pre>
+ * <p>Once constructed, the index can be queried by any number of threads without synchronization.</p>
+ */
+public class MPHStringIndex {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		static final long serialVersionUID = 1_000L;
+
+		int    leafSize;
+		int    avgBucketSize;
+		byte[] mphFunctionData;
+		int[]  fingerprints;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	public static MPHStringIndex build(Set<String> keys) {
+		MPHStringSet set = new MPHStringSet(keys);
+		MPHStringSet.SerializableData setData = set.toSerializable();
+		return new MPHStringIndex(set, new SerializableData(setData.leafSize, setData.avgBucketSize, setData.mphFunctionData, setData.secondaryHashes));
+	}
+
+	public static MPHStringIndex fromData(SerializableData data) {
+		return fromData(data, false);
+	}
+
+	/**
+	 * @param deferEvaluatorBuild if true, the hash function evaluator is built on the first lookup instead of now
+	 */
+	public static MPHStringIndex fromData(SerializableData data, boolean deferEvaluatorBuild) {
+		MPHStringSet.SerializableData setData = new MPHStringSet.SerializableData(data.leafSize, data.avgBucketSize, data.mphFunctionData, data.fingerprints);
+		return new MPHStringIndex(new MPHStringSet(setData, deferEvaluatorBuild), data);
+	}
+
+	private MPHStringIndex(MPHStringSet set, SerializableData data) {
+		this.serializableData = data;
+		this.set = set;
+	}
+
+	@Getter
+	private final SerializableData serializableData;
+	// the ordinal is the verified slot of the set
+	private final MPHStringSet     set;
+
+	/**
+	 * @return the ordinal of the key in the range [0, size) or -1 if the key is not part of the key-set
+	 */
+	public int ordinal(String key) {
+		return set.indexOf(key);
+	}
+
+	public boolean contains(String key) {
+		return ordinal(key) >= 0;
+	}
+
+	/**
+	 * @return the number of keys, which is also the exclusive upper bound of all ordinals
+	 */
+	public int size() {
+		return set.size();
+	}
+
+	public boolean isEmpty() {
+		return set.isEmpty();
+	}
+}
@@ -0,0 +1,189 @@
+package io.searchhub.mph;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.minperf.RecSplitEvaluator;
+
+import java.io.Serializable;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+import static io.searchhub.mph.MPHUtil.buildEvaluator;
+import static io.searchhub.mph.MPHUtil.getMphFunctionData;
+
+/**
+ * Immutable multimap from a string key to a list of int values (e.g. term to product IDs), using minimal perfect hashing for the keys.
+ * <p>
+ * All int values are stored in a single array ordered by key index (compressed sparse row layout),
+ * so there is no array header or list per key. Lookups return a {@link IntSlice} view onto that array without copying it.
+ * </p>
+ * <p>Since keys are not stored, it's not possible to iterate the keys.</p>
+ * <p>Lookups are thread-safe and lock-free.</p>
+ */
+public class MPHStringIntArrayMap {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		static SerializableData getEmptyData() {
+			return new SerializableData(8, 32, new byte[0], new long[0], new int[0]);
+		}
+
+		private static final long serialVersionUID = 1_000L;
+
+		int    leafSize;
+		int    avgBucketSize;
+		byte[] mphFunctionData;
+		// this array contains the verification-hash (32bit) + the start offset of the key's values in the 'values' array (32bit)
+		long[] offsetMap;
+		// values of all keys, concatenated in order of the key index
+		int[]  values;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	public static MPHStringIntArrayMap build(Map<String, int[]> inputData) {
+		return build(inputData.keySet(), inputData::get);
+	}
+
+	/**
+	 * @param keys        key-set
+	 * @param valueLookup function to lookup the values for a key. A null result is handled like an empty array.
+	 * @return a multimap with all given keys and the values provided by the value lookup function
+	 * @throws IllegalArgumentException if the sum of all values exceeds the maximum array size
+	 */
+	public static MPHStringIntArrayMap build(Set<String> keys, Function<String, int[]> valueLookup) {
+		if (keys.isEmpty()) return new MPHStringIntArrayMap(MPHUtil.EMPTY_MAP_FUNCTION, SerializableData.getEmptyData());
+
+		int leafSize = 8, avgBucketSize = 32;
+		byte[] mphFunctionData = getMphFunctionData(leafSize, avgBucketSize, keys);
+		RecSplitEvaluator<String> recSplitEvaluator = buildEvaluator(leafSize, avgBucketSize, mphFunctionData);
+
+		// collect values in key index order first, so the offsets can be computed
+		int[][] valuesPerIndex = new int[keys.size()][];
+		long[] offsetMap = new long[keys.size()];
+		long totalValueCount = 0;
+		for (String key : keys) {
+			int index = recSplitEvaluator.evaluate(key);
+			int[] keyValues = valueLookup.apply(key);
+			valuesPerIndex[index] = keyValues == null ? new int[0] : keyValues;
+			totalValueCount += valuesPerIndex[index].length;
+			// keep checksum, offset is set below
+			offsetMap[index] = ((long) key.hashCode()) << 32;
+		}
+		if (totalValueCount > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many values: " + totalValueCount);
+		}
+
+		int[] values = new int[(int) totalValueCount];
+		int offset = 0;
+		for (int index = 0; index < valuesPerIndex.length; index++) {
+			offsetMap[index] |= offset;
+			System.arraycopy(valuesPerIndex[index], 0, values, offset, valuesPerIndex[index].length);
+			offset += valuesPerIndex[index].length;
+		}
+
+		SerializableData mphMapData = new SerializableData(leafSize, avgBucketSize, mphFunctionData, offsetMap, values);
+		return new MPHStringIntArrayMap(recSplitEvaluator::evaluate, mphMapData);
+	}
+
+	public static MPHStringIntArrayMap fromData(SerializableData data) {
+		ToIntFunction<String> mphFunction = (data.mphFunctionData.length == 0) ? MPHUtil.EMPTY_MAP_FUNCTION : buildEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData)::evaluate;
+		return new MPHStringIntArrayMap(mphFunction, data);
+	}
+
+	private MPHStringIntArrayMap(ToIntFunction<String> mphFunction, SerializableData data) {
+		this.mphFunction = mphFunction;
+		this.serializableMphMapData = data;
+		this.offsetMap = data.offsetMap;
+		this.values = data.values;
+	}
+
+	@Getter
+	private final SerializableData      serializableMphMapData;
+	private final ToIntFunction<String> mphFunction;
+	private final long[]                offsetMap;
+	private final int[]                 values;
+
+	private int getKeyIndex(String searchKey) {
+		if (offsetMap.length == 0) return -1;
+		int index = mphFunction.applyAsInt(searchKey);
+		int keyChecksum = (int) (offsetMap[index] >>> 32);
+		return keyChecksum == searchKey.hashCode() ? index : -1;
+	}
+
+	private int getStartOffset(int index) {
+		return (int) offsetMap[index];
+	}
+
+	private int getEndOffset(int index) {
+		return index + 1 < offsetMap.length ? (int) offsetMap[index + 1] : values.length;
+	}
+
+	/**
+	 * @return number of keys
+	 */
+	public int size() {
+		return offsetMap.length;
+	}
+
+	public boolean isEmpty() {
+		return offsetMap.length == 0;
+	}
+
+	/**
+	 * @return total number of values over all keys
+	 */
+	public int valueCount() {
+		return values.length;
+	}
+
+	public boolean containsKey(String key) {
+		return getKeyIndex(key) >= 0;
+	}
+
+	/**
+	 * @param key the key to lookup
+	 * @return view on the values of the given key or null if the key does not exist
+	 */
+	public IntSlice get(String key) {
+		int index = getKeyIndex(key);
+		if (index < 0) return null;
+		int start = getStartOffset(index);
+		return new IntSlice(values, start, getEndOffset(index) - start);
+	}
+
+	/**
+	 * @param key the key to lookup
+	 * @return the amount of values of the given key or -1 if the key does not exist
+	 */
+	public int valueCount(String key) {
+		int index = getKeyIndex(key);
+		return index < 0 ? -1 : getEndOffset(index) - getStartOffset(index);
+	}
+
+	/**
+	 * Calls the consumer with each value of the given key without any allocation.
+	 *
+	 * @param key           the key to lookup
+	 * @param valueConsumer consumer of the values
+	 * @return true if the key exists
+	 */
+	public boolean forEachValue(String key, IntConsumer valueConsumer) {
+		int index = getKeyIndex(key);
+		if (index < 0) return false;
+		for (int i = getStartOffset(index), end = getEndOffset(index); i < end; i++) {
+			valueConsumer.accept(values[i]);
+		}
+		return true;
+	}
+}
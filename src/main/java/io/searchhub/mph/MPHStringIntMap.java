@@ -9,6 +9,9 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
 
 import static io.searchhub.mph.MPHUtil.buildEvaluator;
 import static io.searchhub.mph.MPHUtil.getMphFunctionData;
@@ -22,6 +25,9 @@ import static io.searchhub.mph.MPHUtil.getMphFunctionData;
  * <p>
  * Also since immutable, put, putAll, clear and remove will throw an UnsupportedOperationException.
  * </p>
+ * <p>
+ * Reads are thread-safe and lock-free, including the lazily built reverse value index used by containsValue and countOf.
+ * </p>
  */
 public class MPHStringIntMap implements Map<String, Integer> {
 
@@ -61,10 +67,20 @@ public class MPHStringIntMap implements Map<String, Integer> {
 	 * @return a map with all given keys and the values provided by the value lookup function
 	 */
 	public static MPHStringIntMap build(Set<String> keys, Function<String, Integer> valueLookup) {
+		return build(keys, valueLookup, 8, 32);
+	}
+
+	/**
+	 * Same as {@link #build(Set, Function)} with custom RecSplit parameters.
+	 * Larger values give fewer bits per key at the cost of a longer build time.
+	 *
+	 * @param leafSize      RecSplit leaf size, default: 8
+	 * @param avgBucketSize RecSplit average bucket size, default: 32
+	 */
+	public static MPHStringIntMap build(Set<String> keys, Function<String, Integer> valueLookup, int leafSize, int avgBucketSize) {
 		long[] valueEntries = new long[keys.size()];
 		if (keys.isEmpty()) return new MPHStringIntMap(MPHUtil.EMPTY_MAP_FUNCTION, SerializableData.getEmptyData());
 
-		int leafSize = 8, avgBucketSize = 32;
 		byte[] mphFunctionData = getMphFunctionData(leafSize, avgBucketSize, keys);
 		SerializableData mphMapData = new SerializableData(leafSize, avgBucketSize, mphFunctionData, valueEntries);
 
@@ -118,36 +134,110 @@ public class MPHStringIntMap implements Map<String, Integer> {
 	}
 
 	public static MPHStringIntMap fromData(SerializableData data) {
-		Function<String, Integer> mphFunction = (data.mphFunctionData.length == 0) ? MPHUtil.EMPTY_MAP_FUNCTION : buildEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData)::evaluate;
-		return new MPHStringIntMap(mphFunction, data);
+		return new MPHStringIntMap(createMphFunction(data), data);
+	}
+
+	/**
+	 * @param deferEvaluatorBuild if true, the hash function evaluator is built on the first lookup instead of now
+	 */
+	public static MPHStringIntMap fromData(SerializableData data, boolean deferEvaluatorBuild) {
+		if (!deferEvaluatorBuild) return fromData(data);
+		return new MPHStringIntMap(new LazyToIntFunction<>(() -> createMphFunction(data)), data);
 	}
 
-	private MPHStringIntMap(Function<String, Integer> mphFunction, SerializableData data) {
+	private static ToIntFunction<String> createMphFunction(SerializableData data) {
+		return (data.mphFunctionData.length == 0) ? MPHUtil.EMPTY_MAP_FUNCTION : buildEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData)::evaluate;
+	}
+
+	private MPHStringIntMap(ToIntFunction<String> mphFunction, SerializableData data) {
+		this(mphFunction, data, null);
+	}
+
+	private MPHStringIntMap(ToIntFunction<String> mphFunction, SerializableData data, MPHFrontCache frontCache) {
 		this.mphFunction = mphFunction;
+		this.frontCache = frontCache;
 		this.serializableMphMapData = data;
 		this.valueMap = data.valueMap;
 	}
 
 	@Getter
-	private final SerializableData          serializableMphMapData;
-	private final Function<String, Integer> mphFunction;
-	private final long[]                    valueMap;
+	private final SerializableData      serializableMphMapData;
+	private final ToIntFunction<String> mphFunction;
+	private final long[]                valueMap;
+	// null if no front cache is used
+	private final MPHFrontCache         frontCache;
+
+	// lazily built on first value query
+	private volatile IntCountIndex valueCountIndex;
 
 	private static long getVerifiableValue(String originalKey, int valueIndex) {
 		long encoded = originalKey.hashCode();
 		encoded <<= 32;
-		encoded |= valueIndex;
+		encoded |= valueIndex & 0xFFFFFFFFL;
 		return encoded;
 	}
 
-	private static Integer getVerifiedValue(long key, String searchKey) {
+	private static boolean isVerified(long key, String searchKey) {
 		int keyChecksum = (int) (key >>> 32);
-		return keyChecksum == searchKey.hashCode() ? (int) key : null;
+		return keyChecksum == searchKey.hashCode();
 	}
 
 	private Integer getValue(String searchKey) {
-		int index = mphFunction.apply(searchKey);
-		return getVerifiedValue(valueMap[index], searchKey);
+		int index = getVerifiedIndex(searchKey);
+		// last 32 bits are the value itself
+		return index >= 0 ? (int) valueMap[index] : null;
+	}
+
+	private int getVerifiedIndex(String searchKey) {
+		if (frontCache == null) return resolveVerifiedIndex(searchKey);
+		int index = frontCache.get(searchKey);
+		if (index == MPHFrontCache.NOT_CACHED) {
+			index = resolveVerifiedIndex(searchKey);
+			frontCache.offer(searchKey, index);
+		}
+		return index;
+	}
+
+	private int resolveVerifiedIndex(String searchKey) {
+		int index = mphFunction.applyAsInt(searchKey);
+		return index >= 0 && isVerified(valueMap[index], searchKey) ? index : -1;
+	}
+
+	/**
+	 * Create a map on the same data with a bounded front cache for the most frequently requested keys.
+	 * Both the hits and misses of the map are cached, so frequent unknown keys are answered fast as well.
+	 *
+	 * @param capacity maximum number of cached keys, rounded up to the next power of two
+	 * @return a new map instance, this instance stays without cache
+	 */
+	public MPHStringIntMap withFrontCache(int capacity) {
+		return withFrontCache(capacity, false);
+	}
+
+	/**
+	 * Create a map on the same data with a bounded front cache, optionally counting its hits and misses.
+	 * Counting adds a shared counter update to every lookup, so it is meant for tuning the capacity.
+	 *
+	 * @param capacity maximum number of cached keys, rounded up to the next power of two
+	 * @param recordStats true to count the hits and misses of the cache
+	 * @return a new map instance, this instance stays without cache
+	 */
+	public MPHStringIntMap withFrontCache(int capacity, boolean recordStats) {
+		return new MPHStringIntMap(mphFunction, serializableMphMapData, new MPHFrontCache(capacity, recordStats));
+	}
+
+	/**
+	 * @return the front cache or null if this map has no front cache
+	 */
+	public MPHFrontCache getFrontCache() {
+		return frontCache;
+	}
+
+	/**
+	 * @return false while the hash function evaluator of a deferred load is not built yet
+	 */
+	boolean isEvaluatorBuilt() {
+		return LazyToIntFunction.isBuilt(mphFunction);
 	}
 
 	@Override
@@ -165,19 +255,38 @@ public class MPHStringIntMap implements Map<String, Integer> {
 		return getValue(key.toString()) != null;
 	}
 
+	/**
+	 * Checks if any key is mapped to the given value.
+	 * The first value query builds a reverse index, so this check is done in constant time.
+	 */
 	@Override
 	public boolean containsValue(Object value) {
-		if (value == null) return false;
-		if (!(value instanceof Integer)) return false;
-		int seekValue = (int) value;
-		boolean result = false;
-		for (long valueEntry : valueMap) {
-			if (seekValue == (int) valueEntry) {
-				result = true;
-				break;
+		return value instanceof Integer && countOf((Integer) value) > 0;
+	}
+
+	/**
+	 * Count the keys that are mapped to the given value.
+	 * The first value query builds a reverse index, so this check is done in constant time.
+	 *
+	 * @param value the value to look for
+	 * @return the number of keys mapped to that value
+	 */
+	public int countOf(int value) {
+		return getValueCountIndex().countOf(value);
+	}
+
+	private IntCountIndex getValueCountIndex() {
+		IntCountIndex index = valueCountIndex;
+		if (index == null) {
+			index = new IntCountIndex();
+			for (long valueEntry : valueMap) {
+				// last 32 bits are the value itself
+				index.add((int) valueEntry);
 			}
+			// racy but idempotent initialization
+			valueCountIndex = index;
 		}
-		return result;
+		return index;
 	}
 
 	@Override
@@ -185,14 +294,64 @@ public class MPHStringIntMap implements Map<String, Integer> {
 		return getValue(key.toString());
 	}
 
+	/**
+	 * @return unmodifiable view on the values without copying them. Values are boxed on access.
+	 * Prefer {@link #forEachValue(IntConsumer)}, {@link #valueStream()} or {@link #valueIterator()} to avoid boxing.
+	 */
 	@Override
 	public Collection<Integer> values() {
-		Integer[] values = new Integer[valueMap.length];
-		for (int i = 0; i < values.length; i++) {
-			// last 32 bits are the value itself
-			values[i] = (int) valueMap[i];
+		return new AbstractList<Integer>() {
+
+			@Override
+			public Integer get(int index) {
+				// last 32 bits are the value itself
+				return (int) valueMap[index];
+			}
+
+			@Override
+			public int size() {
+				return valueMap.length;
+			}
+		};
+	}
+
+	/**
+	 * Calls the consumer with the value of each key, without boxing or copying the values.
+	 *
+	 * @param valueConsumer consumer of the values
+	 */
+	public void forEachValue(IntConsumer valueConsumer) {
+		for (long valueEntry : valueMap) {
+			valueConsumer.accept((int) valueEntry);
 		}
-		return Arrays.asList(values);
+	}
+
+	/**
+	 * @return primitive stream over the value of each key, reading directly from the internal data
+	 */
+	public IntStream valueStream() {
+		return IntStream.range(0, valueMap.length).map(i -> (int) valueMap[i]);
+	}
+
+	/**
+	 * @return primitive iterator over the value of each key, reading directly from the internal data
+	 */
+	public PrimitiveIterator.OfInt valueIterator() {
+		return new PrimitiveIterator.OfInt() {
+
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < valueMap.length;
+			}
+
+			@Override
+			public int nextInt() {
+				if (index >= valueMap.length) throw new NoSuchElementException();
+				return (int) valueMap[index++];
+			}
+		};
 	}
 
 	/**
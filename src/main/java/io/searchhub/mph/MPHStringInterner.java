@@ -0,0 +1,129 @@
+package io.searchhub.mph;
+
+import static io.searchhub.mph.MPHUtil.buildEvaluator;
+import static io.searchhub.mph.MPHUtil.getMphFunctionData;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Returns canonical String instances of a known vocabulary, e.g. to deduplicate repeated category or brand names at ingestion.
+ * <p>
+ * The vocabulary is indexed with a minimal perfect hash function over the chars, so a lookup is one hash evaluation
+ * plus one content comparison with the canonical string, without creating a String for the input. UTF-8 input is
+ * decoded into a reusable per-thread buffer for the same reason. Strings outside the vocabulary are passed to a
+ * fallback, which by default just creates a new String.
+ * </p>
+ * <p>The vocabulary is immutable, so concurrent lookups need no locking. The fallback must be thread-safe itself.</p>
+ */
+public class MPHStringInterner {
+
+	private static final int LEAF_SIZE       = 8;
+	private static final int AVG_BUCKET_SIZE = 32;
+
+	private final ToIntFunction<CharSequence> mphFunction;
+	private final String[]                    canonicalStrings;
+	private final Function<String, String>    fallback;
+
+	private final ThreadLocal<Utf8Buffer> utf8Buffer = ThreadLocal.withInitial(Utf8Buffer::new);
+
+	/**
+	 * Interner that returns new strings for unknown input.
+	 */
+	public static MPHStringInterner build(Collection<String> vocabulary) {
+		return build(vocabulary, Function.identity());
+	}
+
+	/**
+	 * @param vocabulary the known strings, duplicates are ignored
+	 * @param fallback   called for strings outside the vocabulary, e.g. {@code String::intern} or a map based interner
+	 */
+	public static MPHStringInterner build(Collection<String> vocabulary, Function<String, String> fallback) {
+		List<CharSequence> uniqueStrings = new ArrayList<>(new LinkedHashSet<>(vocabulary));
+		String[] canonicalStrings = new String[uniqueStrings.size()];
+		if (uniqueStrings.isEmpty()) return new MPHStringInterner(key -> -1, canonicalStrings, fallback);
+
+		CharSequenceHash hash = new CharSequenceHash();
+		byte[] mphFunctionData = getMphFunctionData(hash, LEAF_SIZE, AVG_BUCKET_SIZE, uniqueStrings);
+		ToIntFunction<CharSequence> mphFunction = buildEvaluator(hash, LEAF_SIZE, AVG_BUCKET_SIZE, mphFunctionData)::evaluate;
+		for (CharSequence string : uniqueStrings) {
+			canonicalStrings[mphFunction.applyAsInt(string)] = (String) string;
+		}
+		return new MPHStringInterner(mphFunction, canonicalStrings, fallback);
+	}
+
+	private MPHStringInterner(ToIntFunction<CharSequence> mphFunction, String[] canonicalStrings, Function<String, String> fallback) {
+		this.mphFunction = mphFunction;
+		this.canonicalStrings = canonicalStrings;
+		this.fallback = fallback;
+	}
+
+	/**
+	 * @return the canonical instance or null if the chars are not part of the vocabulary
+	 */
+	public String lookup(CharSequence chars) {
+		int slot = mphFunction.applyAsInt(chars);
+		if (slot < 0) return null;
+		String canonical = canonicalStrings[slot];
+		return canonical.contentEquals(chars) ? canonical : null;
+	}
+
+	/**
+	 * @return the canonical instance or the result of the fallback for unknown chars
+	 */
+	public String intern(CharSequence chars) {
+		String canonical = lookup(chars);
+		return canonical != null ? canonical : fallback.apply(chars.toString());
+	}
+
+	/**
+	 * Intern UTF-8 encoded input. Malformed input is decoded with replacement chars, like {@code new String(bytes, UTF_8)}.
+	 *
+	 * @return the canonical instance or the result of the fallback for unknown strings
+	 */
+	public String intern(byte[] utf8, int offset, int length) {
+		CharBuffer chars = utf8Buffer.get().decode(utf8, offset, length);
+		String canonical = lookup(chars);
+		return canonical != null ? canonical : fallback.apply(chars.toString());
+	}
+
+	public String intern(byte[] utf8) {
+		return intern(utf8, 0, utf8.length);
+	}
+
+	/**
+	 * @return number of strings in the vocabulary
+	 */
+	public int size() {
+		return canonicalStrings.length;
+	}
+
+	private static final class Utf8Buffer {
+
+		private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		private CharBuffer chars = CharBuffer.allocate(64);
+
+		CharBuffer decode(byte[] utf8, int offset, int length) {
+			// UTF-8 never decodes to more chars than bytes
+			if (chars.capacity() < length) {
+				chars = CharBuffer.allocate(Math.max(length, chars.capacity() * 2));
+			}
+			chars.clear();
+			decoder.reset();
+			ByteBuffer bytes = ByteBuffer.wrap(utf8, offset, length);
+			decoder.decode(bytes, chars, true);
+			decoder.flush(chars);
+			chars.flip();
+			return chars;
+		}
+	}
+}
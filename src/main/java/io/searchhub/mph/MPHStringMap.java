@@ -1,7 +1,9 @@
 package io.searchhub.mph;
 
 import static io.searchhub.mph.MPHUtil.buildEvaluator;
+import static io.searchhub.mph.MPHUtil.buildNormalizedEvaluator;
 import static io.searchhub.mph.MPHUtil.getMphFunctionData;
+import static io.searchhub.mph.MPHUtil.getNormalizedMphFunctionData;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -10,16 +12,28 @@ import org.minperf.RecSplitEvaluator;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
 
 /**
  * Immutable map using minimal perfect hashing for the keys + stores additional hash value per key to reduce risk of wrong mapping.
  * <p>Since keys are not stored, it's not possible to use `keySet` and `entrySet`.</p>
  * <p>
+ * Optionally a {@link KeyNormalization} can be set at build time. Lookup keys are then normalized while they are hashed,
+ * without creating an intermediate string.
+ * </p>
+ * <p>
  * Also since immutable, put, putAll, clear and remove will throw an UnsupportedOperationException.
  * </p>
+ * <p>
+ * Reads are thread-safe and lock-free: all state is final and the hash function evaluation is stateless.
+ * The reverse value index is built lazily without locking; concurrent first calls may build it more than once.
+ * </p>
  *
  * @param <V>
  */
@@ -41,6 +55,12 @@ public class MPHStringMap<V> implements Map<String, V> {
 		byte[] mphFunctionData;
 		long[] keyValueMap;
 		List<V> values;
+		// null or empty for maps without normalization
+		Set<KeyNormalization> keyNormalization;
+
+		public SerializableData(int leafSize, int avgBucketSize, byte[] mphFunctionData, long[] keyValueMap, List<V> values) {
+			this(leafSize, avgBucketSize, mphFunctionData, keyValueMap, values, null);
+		}
 
 		public void setMphFunctionData(String base64Str) {
 			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
@@ -51,6 +71,15 @@ public class MPHStringMap<V> implements Map<String, V> {
 		return build(inputData.keySet(), inputData::get, inputData.size());
 	}
 
+	/**
+	 * Build a map where keys are normalized at build time and lookup keys are normalized the same way.
+	 *
+	 * @throws IllegalArgumentException if two keys are equal after normalization
+	 */
+	public static <V> MPHStringMap<V> build(Map<String, V> inputData, Set<KeyNormalization> keyNormalization) {
+		return build(inputData.keySet(), inputData::get, inputData.size(), keyNormalization);
+	}
+
 	/**
 	 * Use this builder in case you have duplicate values that can be stored once.
 	 * To use it, the exact amount of values has to be known.
@@ -63,20 +92,36 @@ public class MPHStringMap<V> implements Map<String, V> {
 	 * @return
 	 */
 	public static <V> MPHStringMap<V> build(Set<String> keys, Function<String, V> valueLookup, int valueCount) {
+		return build(keys, valueLookup, valueCount, null);
+	}
+
+	/**
+	 * Same as {@link #build(Set, Function, int)}, but keys are normalized at build time and lookup keys are normalized the same way.
+	 * The value lookup is still called with the original keys.
+	 *
+	 * @param keyNormalization normalization steps, null or empty for no normalization
+	 * @throws IllegalArgumentException if two keys are equal after normalization
+	 */
+	public static <V> MPHStringMap<V> build(Set<String> keys, Function<String, V> valueLookup, int valueCount, Set<KeyNormalization> keyNormalization) {
 		long[] keyValueMap = new long[keys.size()];
-		List<V> values = new ArrayList<>(Collections.nCopies(valueCount, null));
-		if (keys.isEmpty()) return new MPHStringMap<>(MPHUtil.EMPTY_MAP_FUNCTION, SerializableData.getEmptyData());
+		// values are appended in index order, so the list only grows to the actual count
+		List<V> values = new ArrayList<>(Math.min(valueCount, keys.size()));
+		if (keys.isEmpty()) return fromData(SerializableData.getEmptyData());
 
 		int leafSize = 8, avgBucketSize = 32;
-		byte[] mphFunctionData = getMphFunctionData(leafSize, avgBucketSize, keys);
-		SerializableData<V> mphMapData = new SerializableData<>(leafSize, avgBucketSize, mphFunctionData, keyValueMap, values);
+		KeyNormalizer keyNormalizer = KeyNormalizer.of(keyNormalization);
+		List<CharSequence> normalizedKeys = keyNormalizer == null ? null : keyNormalizer.normalizeAll(keys);
+		byte[] mphFunctionData = normalizedKeys == null ? getMphFunctionData(leafSize, avgBucketSize, keys) : getNormalizedMphFunctionData(leafSize, avgBucketSize, normalizedKeys);
+		SerializableData<V> mphMapData = new SerializableData<>(leafSize, avgBucketSize, mphFunctionData, keyValueMap, values, keyNormalization);
 
-		RecSplitEvaluator<String> recSplitEvaluator = buildEvaluator(leafSize, avgBucketSize, mphFunctionData);
+		ToIntFunction<CharSequence> mphFunction = createMphFunction(mphMapData);
 		AtomicInteger valueIndex = new AtomicInteger(0);
 		// if there are less values than keys, then use deduplication
 		Map<V, Integer> valueDeduplication = valueCount == keys.size() ? null : new HashMap<>();
+		int keyPosition = 0;
 		for (String key : keys) {
-			int keyIndex = recSplitEvaluator.evaluate(key);
+			CharSequence indexedKey = normalizedKeys == null ? key : normalizedKeys.get(keyPosition++);
+			int keyIndex = mphFunction.applyAsInt(indexedKey);
 			V value = valueLookup.apply(key);
 
 			int _valueIndex;
@@ -87,14 +132,131 @@ public class MPHStringMap<V> implements Map<String, V> {
 				_valueIndex = valueIndex.getAndIncrement();
 			}
 
-			if (_valueIndex > values.size()) {
+			if (_valueIndex >= valueCount) {
 				throw new IllegalArgumentException("Found more values than specified by valueCount " + valueCount);
 			}
-			values.set(_valueIndex, value);
-			keyValueMap[keyIndex] = getVerifiableValueIndex(key, _valueIndex);
+			if (_valueIndex == values.size()) {
+				values.add(value);
+			}
+			keyValueMap[keyIndex] = getVerifiableValueIndex(indexedKey, _valueIndex);
 		}
 
-		return new MPHStringMap<>(recSplitEvaluator::evaluate, mphMapData);
+		return new MPHStringMap<>(mphFunction, mphMapData);
+	}
+
+	/**
+	 * Build a map, where the values are ordered by access frequency, so the values of hot keys are stored close to each other.
+	 *
+	 * @param keyFrequency expected access frequency per key, e.g. counted from a query log sample
+	 */
+	public static <V> MPHStringMap<V> buildByAccessFrequency(Map<String, V> inputData, ToLongFunction<String> keyFrequency) {
+		MPHStringMap<V> map = build(inputData);
+		long[] valueFrequencies = new long[map.values.size()];
+		for (String key : inputData.keySet()) {
+			valueFrequencies[map.getValueIndex(key)] += keyFrequency.applyAsLong(key);
+		}
+		return fromData(orderValues(map.serializableMphMapData, valueFrequencies));
+	}
+
+	/**
+	 * Build a map that stores each distinct value once, without knowing the number of distinct values up front.
+	 * Values are looked up and deduplicated in parallel, so the value lookup must be thread-safe.
+	 * The values SHOULD implement equals and hashCode to allow a correct deduplication.
+	 * The resulting value order follows the first occurrence in key iteration order, so equal input gives equal data.
+	 *
+	 * @param keys        key-set
+	 * @param valueLookup thread-safe function to lookup a value for a key
+	 */
+	public static <V> MPHStringMap<V> buildDeduplicated(Set<String> keys, Function<String, V> valueLookup) {
+		return buildDeduplicated(keys, valueLookup, null);
+	}
+
+	/**
+	 * Same as {@link #buildDeduplicated(Set, Function)}, but keys are normalized at build time and lookup keys are normalized the same way.
+	 *
+	 * @param keyNormalization normalization steps, null or empty for no normalization
+	 * @throws IllegalArgumentException if two keys are equal after normalization
+	 */
+	public static <V> MPHStringMap<V> buildDeduplicated(Set<String> keys, Function<String, V> valueLookup, Set<KeyNormalization> keyNormalization) {
+		return buildDeduplicated(keys, valueLookup, keyNormalization, 8, 32);
+	}
+
+	/**
+	 * Same as {@link #buildDeduplicated(Set, Function, Set)} with custom RecSplit parameters.
+	 * Larger values give fewer bits per key at the cost of a longer build time.
+	 *
+	 * @param leafSize      RecSplit leaf size, default: 8
+	 * @param avgBucketSize RecSplit average bucket size, default: 32
+	 */
+	public static <V> MPHStringMap<V> buildDeduplicated(Set<String> keys, Function<String, V> valueLookup, Set<KeyNormalization> keyNormalization, int leafSize, int avgBucketSize) {
+		if (keys.isEmpty()) return fromData(SerializableData.getEmptyData());
+		// the key array only holds references, it gives each chunk its key range
+		String[] keyArray = keys.toArray(new String[0]);
+
+		KeyNormalizer keyNormalizer = KeyNormalizer.of(keyNormalization);
+		List<CharSequence> normalizedKeys = keyNormalizer == null ? null : keyNormalizer.normalizeAll(Arrays.asList(keyArray));
+		byte[] mphFunctionData = normalizedKeys == null ? getMphFunctionData(leafSize, avgBucketSize, keys) : getNormalizedMphFunctionData(leafSize, avgBucketSize, normalizedKeys);
+		long[] keyValueMap = new long[keyArray.length];
+		List<V> values = new ArrayList<>();
+		SerializableData<V> mphMapData = new SerializableData<>(leafSize, avgBucketSize, mphFunctionData, keyValueMap, values, keyNormalization);
+		ToIntFunction<CharSequence> mphFunction = createMphFunction(mphMapData);
+
+		// first pass: each chunk deduplicates its values into a local map without any shared state
+		int chunkCount = getDeduplicationChunkCount(keyArray.length);
+		int[] localValueIndexes = new int[keyArray.length];
+		List<List<V>> chunkValues = new ArrayList<>(Collections.nCopies(chunkCount, null));
+		IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+			Map<V, Integer> localIndexes = new HashMap<>();
+			List<V> localValues = new ArrayList<>();
+			for (int i = chunkStart(chunk, chunkCount, keyArray.length), end = chunkStart(chunk + 1, chunkCount, keyArray.length); i < end; i++) {
+				V value = valueLookup.apply(keyArray[i]);
+				Integer localIndex = localIndexes.putIfAbsent(value, localValues.size());
+				if (localIndex == null) {
+					localIndex = localValues.size();
+					localValues.add(value);
+				}
+				localValueIndexes[i] = localIndex;
+			}
+			chunkValues.set(chunk, localValues);
+		});
+
+		// merge in chunk order: values are ordered by first occurrence in key iteration order, so equal input gives equal data
+		Map<V, Integer> valueIndexes = new HashMap<>();
+		int[][] chunkValueIndexes = new int[chunkCount][];
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			List<V> localValues = chunkValues.get(chunk);
+			chunkValueIndexes[chunk] = new int[localValues.size()];
+			for (int localIndex = 0; localIndex < localValues.size(); localIndex++) {
+				V value = localValues.get(localIndex);
+				Integer valueIndex = valueIndexes.putIfAbsent(value, values.size());
+				if (valueIndex == null) {
+					valueIndex = values.size();
+					values.add(value);
+				}
+				chunkValueIndexes[chunk][localIndex] = valueIndex;
+			}
+		}
+
+		// second pass: the evaluator is stateless and each key writes its own slot
+		IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+			for (int i = chunkStart(chunk, chunkCount, keyArray.length), end = chunkStart(chunk + 1, chunkCount, keyArray.length); i < end; i++) {
+				CharSequence indexedKey = normalizedKeys == null ? keyArray[i] : normalizedKeys.get(i);
+				keyValueMap[mphFunction.applyAsInt(indexedKey)] = getVerifiableValueIndex(indexedKey, chunkValueIndexes[chunk][localValueIndexes[i]]);
+			}
+		});
+		return new MPHStringMap<>(mphFunction, mphMapData);
+	}
+
+	// small chunks only add merge work, a few chunks per thread balance uneven value lookups
+	private static final int MIN_DEDUPLICATION_CHUNK_SIZE = 1 << 14;
+
+	private static int getDeduplicationChunkCount(int keyCount) {
+		int maxChunkCount = ForkJoinPool.getCommonPoolParallelism() * 4;
+		return Math.max(1, Math.min(maxChunkCount, keyCount / MIN_DEDUPLICATION_CHUNK_SIZE));
+	}
+
+	private static int chunkStart(int chunk, int chunkCount, int keyCount) {
+		return (int) ((long) keyCount * chunk / chunkCount);
 	}
 
 	public static <V> MPHStringMap<V> build(Iterable<Entry<String, V>> keyValueIterable, int size) {
@@ -137,13 +299,35 @@ public class MPHStringMap<V> implements Map<String, V> {
 	}
 
 	public static <V> MPHStringMap<V> fromData(SerializableData<V> data) {
-		Function<String, Integer> mphFunction = (data.mphFunctionData.length == 0) ? MPHUtil.EMPTY_MAP_FUNCTION : buildEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData)::evaluate;
-		return new MPHStringMap<V>(mphFunction, data);
+		return new MPHStringMap<V>(createMphFunction(data), data);
 	}
 
-	private MPHStringMap(Function<String, Integer> mphFunction, SerializableData<V> data) {
+	/**
+	 * @param deferEvaluatorBuild if true, the hash function evaluator is built on the first lookup instead of now
+	 */
+	public static <V> MPHStringMap<V> fromData(SerializableData<V> data, boolean deferEvaluatorBuild) {
+		if (!deferEvaluatorBuild) return fromData(data);
+		return new MPHStringMap<V>(new LazyToIntFunction<>(() -> createMphFunction(data)), data);
+	}
+
+	private static ToIntFunction<CharSequence> createMphFunction(SerializableData<?> data) {
+		if (data.mphFunctionData.length == 0) return key -> -1;
+		if (KeyNormalizer.of(data.keyNormalization) != null) {
+			return buildNormalizedEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData)::evaluate;
+		}
+		RecSplitEvaluator<String> recSplitEvaluator = buildEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData);
+		return key -> recSplitEvaluator.evaluate((String) key);
+	}
+
+	private MPHStringMap(ToIntFunction<CharSequence> mphFunction, SerializableData<V> data) {
+		this(mphFunction, data, null);
+	}
+
+	private MPHStringMap(ToIntFunction<CharSequence> mphFunction, SerializableData<V> data, MPHFrontCache frontCache) {
 		this.mphFunction = mphFunction;
+		this.frontCache = frontCache;
 		this.serializableMphMapData = data;
+		this.keyNormalizer = KeyNormalizer.of(data.keyNormalization);
 		this.keyValueMap = data.keyValueMap;
 		this.values = data.values;
 	}
@@ -151,26 +335,128 @@ public class MPHStringMap<V> implements Map<String, V> {
 	@Getter
 	private final SerializableData<V> serializableMphMapData;
 
-	private volatile Function<String, Integer> mphFunction;
+	private final ToIntFunction<CharSequence> mphFunction;
+	// null if keys are not normalized
+	private final KeyNormalizer               keyNormalizer;
+
+	private final long[]  keyValueMap;
+	private final List<V> values;
 
-	private volatile long[]  keyValueMap;
-	private volatile List<V> values;
+	// null if no front cache is used
+	private final MPHFrontCache frontCache;
 
-	private static long getVerifiableValueIndex(String originalKey, int valueIndex) {
+	// lazily built on first value query
+	private volatile Map<V, Integer> valueCountIndex;
+
+	// the key is either a String or a NormalizedKey, both have the same hashCode for the same chars
+	private static long getVerifiableValueIndex(CharSequence originalKey, int valueIndex) {
 		long encoded = originalKey.hashCode();
 		encoded <<= 32;
 		encoded |= valueIndex;
 		return encoded;
 	}
 
-	private static int getVerifiedValueIndex(long key, String searchKey) {
+	private static int getVerifiedValueIndex(long key, CharSequence searchKey) {
 		int keyChecksum = (int) (key >>> 32);
 		return keyChecksum == searchKey.hashCode() ? (int) key : -1;
 	}
 
 	private int getValueIndex(String searchKey) {
-		int keyIndex = mphFunction.apply(searchKey);
-		return getVerifiedValueIndex(keyValueMap[keyIndex], searchKey);
+		if (frontCache == null) return resolveValueIndex(searchKey);
+		int valueIndex = frontCache.get(searchKey);
+		if (valueIndex == MPHFrontCache.NOT_CACHED) {
+			valueIndex = resolveValueIndex(searchKey);
+			frontCache.offer(searchKey, valueIndex);
+		}
+		return valueIndex;
+	}
+
+	private int resolveValueIndex(String searchKey) {
+		if (keyValueMap.length == 0) return -1;
+		CharSequence lookupKey = keyNormalizer == null ? searchKey : keyNormalizer.normalize(searchKey);
+		int keyIndex = mphFunction.applyAsInt(lookupKey);
+		return getVerifiedValueIndex(keyValueMap[keyIndex], lookupKey);
+	}
+
+	/**
+	 * Create a map on the same data with a bounded front cache for the most frequently requested keys.
+	 * Both the hits and misses of the map are cached, so frequent unknown keys are answered fast as well.
+	 *
+	 * @param capacity maximum number of cached keys, rounded up to the next power of two
+	 * @return a new map instance, this instance stays without cache
+	 */
+	public MPHStringMap<V> withFrontCache(int capacity) {
+		return withFrontCache(capacity, false);
+	}
+
+	/**
+	 * Create a map on the same data with a bounded front cache, optionally counting its hits and misses.
+	 * Counting adds a shared counter update to every lookup, so it is meant for tuning the capacity.
+	 *
+	 * @param capacity maximum number of cached keys, rounded up to the next power of two
+	 * @param recordStats true to count the hits and misses of the cache
+	 * @return a new map instance, this instance stays without cache
+	 */
+	public MPHStringMap<V> withFrontCache(int capacity, boolean recordStats) {
+		return new MPHStringMap<>(mphFunction, serializableMphMapData, new MPHFrontCache(capacity, recordStats));
+	}
+
+	/**
+	 * @return the front cache or null if this map has no front cache
+	 */
+	public MPHFrontCache getFrontCache() {
+		return frontCache;
+	}
+
+	/**
+	 * @return false while the hash function evaluator of a deferred load is not built yet
+	 */
+	boolean isEvaluatorBuilt() {
+		return LazyToIntFunction.isBuilt(mphFunction);
+	}
+
+	/**
+	 * Create a copy of this map with a compacted and frequency ordered value list:
+	 * values of frequent keys are moved to the front and values that no key refers to are removed.
+	 * Values that are not hit by the sample keep their relative order behind the hot values.
+	 *
+	 * @param keyFrequencies access frequency per key, e.g. from a query log sample. Unknown keys are ignored.
+	 * @return a new map with the same keys and values
+	 */
+	public MPHStringMap<V> reorderValues(Map<String, ? extends Number> keyFrequencies) {
+		long[] valueFrequencies = new long[values.size()];
+		keyFrequencies.forEach((key, frequency) -> {
+			int valueIndex = resolveValueIndex(key);
+			if (valueIndex >= 0) valueFrequencies[valueIndex] += frequency.longValue();
+		});
+		return fromData(orderValues(serializableMphMapData, valueFrequencies));
+	}
+
+	private static <V> SerializableData<V> orderValues(SerializableData<V> data, long[] valueFrequencies) {
+		boolean[] isReferenced = new boolean[data.values.size()];
+		for (long keyValueEntry : data.keyValueMap) {
+			isReferenced[(int) keyValueEntry] = true;
+		}
+		List<Integer> order = new ArrayList<>(data.values.size());
+		for (int i = 0; i < isReferenced.length; i++) {
+			if (isReferenced[i]) order.add(i);
+		}
+		// stable sort, so equally frequent values keep their order
+		order.sort((a, b) -> Long.compare(valueFrequencies[b], valueFrequencies[a]));
+
+		int[] newValueIndex = new int[data.values.size()];
+		List<V> orderedValues = new ArrayList<>(order.size());
+		for (int oldIndex : order) {
+			newValueIndex[oldIndex] = orderedValues.size();
+			orderedValues.add(data.values.get(oldIndex));
+		}
+		long[] keyValueMap = new long[data.keyValueMap.length];
+		for (int i = 0; i < keyValueMap.length; i++) {
+			long entry = data.keyValueMap[i];
+			// keep the checksum in the upper 32 bits
+			keyValueMap[i] = (entry & 0xFFFFFFFF00000000L) | newValueIndex[(int) entry];
+		}
+		return new SerializableData<>(data.leafSize, data.avgBucketSize, data.mphFunctionData, keyValueMap, orderedValues, data.keyNormalization);
 	}
 
 	@Override
@@ -188,16 +474,44 @@ public class MPHStringMap<V> implements Map<String, V> {
 		return getValueIndex(key.toString()) >= 0;
 	}
 
+	/**
+	 * Checks if any key is mapped to the given value.
+	 * The first value query builds a reverse index, so this check is done in constant time.
+	 */
 	@Override
 	public boolean containsValue(Object value) {
-		boolean result = false;
-		for (V v : values) {
-			if ((value == null && v == null) || v.equals(value)) {
-				result = true;
-				break;
+		return countOf(value) > 0;
+	}
+
+	/**
+	 * Count the keys that are mapped to the given value.
+	 * The first value query builds a reverse index, so this check is done in constant time.
+	 *
+	 * @param value the value to look for, can be null
+	 * @return the number of keys mapped to that value
+	 */
+	public int countOf(Object value) {
+		return getValueCountIndex().getOrDefault(value, 0);
+	}
+
+	private Map<V, Integer> getValueCountIndex() {
+		Map<V, Integer> index = valueCountIndex;
+		if (index == null) {
+			// count per value index first, since several keys may point to the same value
+			int[] countPerValueIndex = new int[values.size()];
+			for (long keyValueEntry : keyValueMap) {
+				countPerValueIndex[(int) keyValueEntry]++;
 			}
+			index = new HashMap<>();
+			for (int i = 0; i < countPerValueIndex.length; i++) {
+				if (countPerValueIndex[i] > 0) {
+					index.merge(values.get(i), countPerValueIndex[i], Integer::sum);
+				}
+			}
+			// racy but idempotent initialization
+			valueCountIndex = index;
 		}
-		return result;
+		return index;
 	}
 
 	@Override
@@ -206,9 +520,13 @@ public class MPHStringMap<V> implements Map<String, V> {
 		return valueIndex >= 0 ? values.get(valueIndex) : null;
 	}
 
+	/**
+	 * @return unmodifiable view on the stored values without copying them.
+	 * Since values are deduplicated, this can contain fewer entries than keys.
+	 */
 	@Override
 	public Collection<V> values() {
-		return new ArrayList<>(values);
+		return Collections.unmodifiableList(values);
 	}
 
 	/**
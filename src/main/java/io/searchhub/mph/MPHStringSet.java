@@ -1,32 +1,39 @@
 package io.searchhub.mph;
 
 import static io.searchhub.mph.MPHUtil.buildEvaluator;
+import static io.searchhub.mph.MPHUtil.buildNormalizedEvaluator;
 import static io.searchhub.mph.MPHUtil.getMphFunctionData;
+import static io.searchhub.mph.MPHUtil.getNormalizedMphFunctionData;
 
 import java.io.Serializable;
 import java.util.*;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.minperf.RecSplitEvaluator;
-import org.minperf.universal.StringHash;
 
 /**
  * Unmodifiable set with constant size usage, that can only provide the 'contains' and 'size' methods, since the keys are not stored.
  * It can be used similar to bloom filter: build it in offsite batch process and transported to a low-memory application for filtering.
+ * <p>With a {@link KeyNormalization} the keys are normalized at build time and raw lookup keys are normalized while hashing.</p>
+ * <p>Once constructed, the set can be queried by any number of threads without synchronization.</p>
  */
 public class MPHStringSet implements Set<String> {
 
 	// saved for serialization
-	private       int    leafSize      = 8;
-	private       int    avgBucketSize = 32;
+	private       int    leafSize;
+	private       int    avgBucketSize;
 	private final byte[] mphFunctionData;
 
-	private final Function<String, Integer> primaryHashFunction;
-	private final Function<String, Integer> secondaryHashFunction = k -> (int) StringHash.getSipHash24(k, 23L, 31L);
-	private final int[]                     secondaryHashes;
+	private final Set<KeyNormalization> keyNormalization;
+
+	private final ToIntFunction<CharSequence> primaryHashFunction;
+	private final ToIntFunction<CharSequence> secondaryHashFunction;
+	private final int[]                       secondaryHashes;
+	// null if keys are not normalized
+	private final KeyNormalizer               keyNormalizer;
 
 	@RequiredArgsConstructor
 	@AllArgsConstructor
@@ -43,6 +50,12 @@ public class MPHStringSet implements Set<String> {
 		int    avgBucketSize;
 		byte[] mphFunctionData;
 		int[]  secondaryHashes;
+		// null or empty for sets without normalization
+		Set<KeyNormalization> keyNormalization;
+
+		public SerializableData(int leafSize, int avgBucketSize, byte[] mphFunctionData, int[] secondaryHashes) {
+			this(leafSize, avgBucketSize, mphFunctionData, secondaryHashes, null);
+		}
 
 		public void setMphFunctionData(String base64Str) {
 			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
@@ -60,37 +73,97 @@ public class MPHStringSet implements Set<String> {
 	}
 
 	public MPHStringSet(Set<String> keys) {
+		this(keys, null);
+	}
+
+	/**
+	 * @param keys             the keys of the set
+	 * @param keyNormalization normalization steps applied to the keys and to each lookup key, null or empty for no normalization
+	 * @throws IllegalArgumentException if two keys are equal after normalization
+	 */
+	public MPHStringSet(Set<String> keys, Set<KeyNormalization> keyNormalization) {
+		this(keys, keyNormalization, 8, 32);
+	}
+
+	/**
+	 * Same as {@link #MPHStringSet(Set, Set)} with custom RecSplit parameters.
+	 * Larger values give fewer bits per key at the cost of a longer build time.
+	 *
+	 * @param leafSize      RecSplit leaf size, default: 8
+	 * @param avgBucketSize RecSplit average bucket size, default: 32
+	 */
+	public MPHStringSet(Set<String> keys, Set<KeyNormalization> keyNormalization, int leafSize, int avgBucketSize) {
+		this.leafSize = leafSize;
+		this.avgBucketSize = avgBucketSize;
+		this.keyNormalization = keyNormalization;
+		keyNormalizer = KeyNormalizer.of(keyNormalization);
+		secondaryHashFunction = createSecondaryHashFunction(keyNormalizer);
 		if (keys.isEmpty()) {
 			secondaryHashes = new int[0];
-			primaryHashFunction = MPHUtil.EMPTY_MAP_FUNCTION;
+			primaryHashFunction = key -> -1;
 			mphFunctionData = new byte[0];
 		} else {
+			List<CharSequence> normalizedKeys = keyNormalizer == null ? null : keyNormalizer.normalizeAll(keys);
+			Collection<? extends CharSequence> indexedKeys = normalizedKeys == null ? keys : normalizedKeys;
 			secondaryHashes = new int[keys.size()];
-			mphFunctionData = getMphFunctionData(leafSize, avgBucketSize, keys);
-			RecSplitEvaluator<String> recSplitEvaluator = buildEvaluator(leafSize, avgBucketSize, mphFunctionData);
-			primaryHashFunction = recSplitEvaluator::evaluate;
-			for (String key : keys) {
-				int keyIndex = recSplitEvaluator.evaluate(key);
-				secondaryHashes[keyIndex] = secondaryHashFunction.apply(key);
+			mphFunctionData = normalizedKeys == null ? getMphFunctionData(leafSize, avgBucketSize, keys) : getNormalizedMphFunctionData(leafSize, avgBucketSize, normalizedKeys);
+			primaryHashFunction = createPrimaryHashFunction(leafSize, avgBucketSize, mphFunctionData, keyNormalizer);
+			for (CharSequence key : indexedKeys) {
+				int keyIndex = primaryHashFunction.applyAsInt(key);
+				secondaryHashes[keyIndex] = secondaryHashFunction.applyAsInt(key);
 			}
 		}
 	}
 
 	public MPHStringSet(SerializableData dto) {
+		this(dto, false);
+	}
+
+	/**
+	 * @param deferEvaluatorBuild if true, the hash function evaluator is built on the first lookup instead of now
+	 */
+	public MPHStringSet(SerializableData dto, boolean deferEvaluatorBuild) {
 		secondaryHashes = dto.secondaryHashes;
 		leafSize = dto.leafSize;
 		avgBucketSize = dto.avgBucketSize;
 		mphFunctionData = dto.mphFunctionData;
+		keyNormalization = dto.keyNormalization;
+		keyNormalizer = KeyNormalizer.of(keyNormalization);
+		secondaryHashFunction = createSecondaryHashFunction(keyNormalizer);
 		if (mphFunctionData.length == 0) {
-			primaryHashFunction = MPHUtil.EMPTY_MAP_FUNCTION;
+			primaryHashFunction = key -> -1;
+		} else if (deferEvaluatorBuild) {
+			KeyNormalizer normalizer = keyNormalizer;
+			primaryHashFunction = new LazyToIntFunction<>(() -> createPrimaryHashFunction(dto.leafSize, dto.avgBucketSize, dto.mphFunctionData, normalizer));
 		} else {
-			RecSplitEvaluator<String> recSplitEvaluator = buildEvaluator(dto.leafSize, dto.avgBucketSize, dto.mphFunctionData);
-			primaryHashFunction = recSplitEvaluator::evaluate;
+			primaryHashFunction = createPrimaryHashFunction(dto.leafSize, dto.avgBucketSize, dto.mphFunctionData, keyNormalizer);
 		}
 	}
 
+	private static ToIntFunction<CharSequence> createPrimaryHashFunction(int leafSize, int avgBucketSize, byte[] mphFunctionData, KeyNormalizer keyNormalizer) {
+		if (keyNormalizer != null) {
+			return buildNormalizedEvaluator(leafSize, avgBucketSize, mphFunctionData)::evaluate;
+		}
+		RecSplitEvaluator<String> recSplitEvaluator = buildEvaluator(leafSize, avgBucketSize, mphFunctionData);
+		return key -> recSplitEvaluator.evaluate((String) key);
+	}
+
+	private static ToIntFunction<CharSequence> createSecondaryHashFunction(KeyNormalizer keyNormalizer) {
+		if (keyNormalizer != null) {
+			return MPHUtil::normalizedKeyFingerprint;
+		}
+		return key -> MPHUtil.keyFingerprint((String) key);
+	}
+
 	public SerializableData toSerializable() {
-		return new SerializableData(leafSize, avgBucketSize, mphFunctionData, secondaryHashes);
+		return new SerializableData(leafSize, avgBucketSize, mphFunctionData, secondaryHashes, keyNormalization);
+	}
+
+	/**
+	 * @return false while the hash function evaluator of a deferred load is not built yet
+	 */
+	boolean isEvaluatorBuilt() {
+		return LazyToIntFunction.isBuilt(primaryHashFunction);
 	}
 
 	@Override
@@ -103,10 +176,18 @@ public class MPHStringSet implements Set<String> {
 		return size() == 0;
 	}
 
+	/**
+	 * @return the verified slot of the key in the range [0, size) or -1 if the key is not contained
+	 */
+	int indexOf(String key) {
+		if (isEmpty()) return -1;
+		CharSequence lookupKey = keyNormalizer == null ? key : keyNormalizer.normalize(key);
+		int keyIndex = primaryHashFunction.applyAsInt(lookupKey);
+		return keyIndex >= 0 && secondaryHashes[keyIndex] == secondaryHashFunction.applyAsInt(lookupKey) ? keyIndex : -1;
+	}
+
 	private boolean containsStr(String key) {
-		if (isEmpty()) return false;
-		int keyIndex = primaryHashFunction.apply(key);
-		return secondaryHashes[keyIndex] == secondaryHashFunction.apply(key);
+		return indexOf(key) >= 0;
 	}
 
 	@Override
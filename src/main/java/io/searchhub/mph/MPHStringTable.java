@@ -0,0 +1,319 @@
+package io.searchhub.mph;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.minperf.RecSplitEvaluator;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static io.searchhub.mph.MPHUtil.buildEvaluator;
+import static io.searchhub.mph.MPHUtil.getMphFunctionData;
+
+/**
+ * Immutable table with several typed value columns over the same set of string keys.
+ * <p>
+ * All columns share a single minimal perfect hash function and a single array of verification hashes,
+ * so compared to one MPHStringIntMap/MPHStringMap per attribute, the function is only generated and stored once
+ * and one hash evaluation ({@link #row(String)}) serves the lookups in all columns.
+ * </p>
+ * <pre>
+ * MPHStringTable table = MPHStringTable.builder(queries)
+ *         .intColumn("popularity", popularity::get)
+ *         .objectColumn("redirect", redirects::get)
+ *         .build();
+ * MPHStringTable.IntColumn popularityColumn = table.intColumn("popularity");
+ * int row = table.row(query);
+ * if (row >= 0) {
+ *     int popularity = popularityColumn.get(row);
+ * }
+ * </pre>
+ * <p>Since keys are not stored, it's not possible to iterate the keys.</p>
+ * <p>Row lookups and column reads are thread-safe and lock-free.</p>
+ */
+public class MPHStringTable {
+
+	@RequiredArgsConstructor
+	@AllArgsConstructor
+	@Getter
+	public final static class SerializableData implements Serializable {
+
+		private static final long serialVersionUID = 1_000L;
+
+		int    leafSize;
+		int    avgBucketSize;
+		byte[] mphFunctionData;
+		// verification-hash per row
+		int[]  keyHashes;
+
+		Map<String, int[]>        intColumns;
+		Map<String, long[]>       longColumns;
+		Map<String, float[]>      floatColumns;
+		Map<String, List<Object>> objectColumns;
+
+		public void setMphFunctionData(String base64Str) {
+			this.mphFunctionData = Base64.getDecoder().decode(base64Str);
+		}
+	}
+
+	/**
+	 * @param keys the key set, all columns have one entry per key.
+	 * @return builder to add the columns
+	 */
+	public static Builder builder(Set<String> keys) {
+		return new Builder(keys);
+	}
+
+	public static class Builder {
+
+		private final Set<String> keys;
+
+		private final Map<String, ToIntFunction<String>>    intColumns    = new LinkedHashMap<>();
+		private final Map<String, ToLongFunction<String>>   longColumns   = new LinkedHashMap<>();
+		private final Map<String, ToDoubleFunction<String>> floatColumns  = new LinkedHashMap<>();
+		private final Map<String, Function<String, ?>>      objectColumns = new LinkedHashMap<>();
+
+		private Builder(Set<String> keys) {
+			this.keys = keys;
+		}
+
+		public Builder intColumn(String name, ToIntFunction<String> valueLookup) {
+			checkUnique(name);
+			intColumns.put(name, valueLookup);
+			return this;
+		}
+
+		public Builder longColumn(String name, ToLongFunction<String> valueLookup) {
+			checkUnique(name);
+			longColumns.put(name, valueLookup);
+			return this;
+		}
+
+		/**
+		 * @param valueLookup lookup of the value, the result is stored as float.
+		 */
+		public Builder floatColumn(String name, ToDoubleFunction<String> valueLookup) {
+			checkUnique(name);
+			floatColumns.put(name, valueLookup);
+			return this;
+		}
+
+		public Builder objectColumn(String name, Function<String, ?> valueLookup) {
+			checkUnique(name);
+			objectColumns.put(name, valueLookup);
+			return this;
+		}
+
+		private void checkUnique(String name) {
+			if (intColumns.containsKey(name) || longColumns.containsKey(name) || floatColumns.containsKey(name) || objectColumns.containsKey(name)) {
+				throw new IllegalArgumentException("column '" + name + "' already defined");
+			}
+		}
+
+		public MPHStringTable build() {
+			int leafSize = 8, avgBucketSize = 32;
+			int rowCount = keys.size();
+			byte[] mphFunctionData = keys.isEmpty() ? new byte[0] : getMphFunctionData(leafSize, avgBucketSize, keys);
+
+			int[] keyHashes = new int[rowCount];
+			Map<String, int[]> intData = new LinkedHashMap<>();
+			intColumns.keySet().forEach(name -> intData.put(name, new int[rowCount]));
+			Map<String, long[]> longData = new LinkedHashMap<>();
+			longColumns.keySet().forEach(name -> longData.put(name, new long[rowCount]));
+			Map<String, float[]> floatData = new LinkedHashMap<>();
+			floatColumns.keySet().forEach(name -> floatData.put(name, new float[rowCount]));
+			Map<String, List<Object>> objectData = new LinkedHashMap<>();
+			objectColumns.keySet().forEach(name -> objectData.put(name, new ArrayList<>(Collections.nCopies(rowCount, null))));
+
+			ToIntFunction<String> mphFunction = MPHUtil.EMPTY_MAP_FUNCTION;
+			if (!keys.isEmpty()) {
+				RecSplitEvaluator<String> recSplitEvaluator = buildEvaluator(leafSize, avgBucketSize, mphFunctionData);
+				mphFunction = recSplitEvaluator::evaluate;
+				for (String key : keys) {
+					int row = recSplitEvaluator.evaluate(key);
+					keyHashes[row] = key.hashCode();
+					intColumns.forEach((name, lookup) -> intData.get(name)[row] = lookup.applyAsInt(key));
+					longColumns.forEach((name, lookup) -> longData.get(name)[row] = lookup.applyAsLong(key));
+					floatColumns.forEach((name, lookup) -> floatData.get(name)[row] = (float) lookup.applyAsDouble(key));
+					objectColumns.forEach((name, lookup) -> objectData.get(name).set(row, lookup.apply(key)));
+				}
+			}
+
+			return new MPHStringTable(mphFunction, new SerializableData(leafSize, avgBucketSize, mphFunctionData, keyHashes, intData, longData, floatData, objectData));
+		}
+	}
+
+	public static MPHStringTable fromData(SerializableData data) {
+		ToIntFunction<String> mphFunction = (data.mphFunctionData.length == 0) ? MPHUtil.EMPTY_MAP_FUNCTION : buildEvaluator(data.leafSize, data.avgBucketSize, data.mphFunctionData)::evaluate;
+		return new MPHStringTable(mphFunction, data);
+	}
+
+	private MPHStringTable(ToIntFunction<String> mphFunction, SerializableData data) {
+		this.mphFunction = mphFunction;
+		this.serializableData = data;
+		this.keyHashes = data.keyHashes;
+	}
+
+	@Getter
+	private final SerializableData      serializableData;
+	private final ToIntFunction<String> mphFunction;
+	private final int[]                 keyHashes;
+
+	/**
+	 * Evaluates the hash function once. The returned row can then be used to access the values of all columns.
+	 *
+	 * @param key the key to lookup
+	 * @return the row of that key or -1 if the key does not exist
+	 */
+	public int row(String key) {
+		if (keyHashes.length == 0) return -1;
+		int row = mphFunction.applyAsInt(key);
+		return keyHashes[row] == key.hashCode() ? row : -1;
+	}
+
+	public boolean containsKey(String key) {
+		return row(key) >= 0;
+	}
+
+	/**
+	 * @return number of keys/rows
+	 */
+	public int size() {
+		return keyHashes.length;
+	}
+
+	public boolean isEmpty() {
+		return keyHashes.length == 0;
+	}
+
+	public Set<String> columnNames() {
+		Set<String> names = new LinkedHashSet<>();
+		names.addAll(serializableData.intColumns.keySet());
+		names.addAll(serializableData.longColumns.keySet());
+		names.addAll(serializableData.floatColumns.keySet());
+		names.addAll(serializableData.objectColumns.keySet());
+		return names;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if no int column with that name exists
+	 */
+	public IntColumn intColumn(String name) {
+		return new IntColumn(this, getColumnData(serializableData.intColumns, name, "int"));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if no long column with that name exists
+	 */
+	public LongColumn longColumn(String name) {
+		return new LongColumn(this, getColumnData(serializableData.longColumns, name, "long"));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if no float column with that name exists
+	 */
+	public FloatColumn floatColumn(String name) {
+		return new FloatColumn(this, getColumnData(serializableData.floatColumns, name, "float"));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if no object column with that name exists
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> ObjectColumn<V> objectColumn(String name) {
+		return new ObjectColumn<>(this, (List<V>) getColumnData(serializableData.objectColumns, name, "object"));
+	}
+
+	private static <T> T getColumnData(Map<String, T> columns, String name, String type) {
+		T columnData = columns.get(name);
+		if (columnData == null) {
+			throw new IllegalArgumentException("no " + type + " column '" + name + "'");
+		}
+		return columnData;
+	}
+
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class IntColumn {
+
+		private final MPHStringTable table;
+		private final int[]          values;
+
+		/**
+		 * @param row a valid row retrieved by {@link MPHStringTable#row(String)}
+		 */
+		public int get(int row) {
+			return values[row];
+		}
+
+		public int getOrDefault(String key, int defaultValue) {
+			int row = table.row(key);
+			return row >= 0 ? values[row] : defaultValue;
+		}
+	}
+
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class LongColumn {
+
+		private final MPHStringTable table;
+		private final long[]         values;
+
+		/**
+		 * @param row a valid row retrieved by {@link MPHStringTable#row(String)}
+		 */
+		public long get(int row) {
+			return values[row];
+		}
+
+		public long getOrDefault(String key, long defaultValue) {
+			int row = table.row(key);
+			return row >= 0 ? values[row] : defaultValue;
+		}
+	}
+
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class FloatColumn {
+
+		private final MPHStringTable table;
+		private final float[]        values;
+
+		/**
+		 * @param row a valid row retrieved by {@link MPHStringTable#row(String)}
+		 */
+		public float get(int row) {
+			return values[row];
+		}
+
+		public float getOrDefault(String key, float defaultValue) {
+			int row = table.row(key);
+			return row >= 0 ? values[row] : defaultValue;
+		}
+	}
+
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class ObjectColumn<V> {
+
+		private final MPHStringTable table;
+		private final List<V>        values;
+
+		/**
+		 * @param row a valid row retrieved by {@link MPHStringTable#row(String)}
+		 */
+		public V get(int row) {
+			return values.get(row);
+		}
+
+		/**
+		 * @return the value of that key or null if the key does not exist
+		 */
+		public V get(String key) {
+			int row = table.row(key);
+			return row >= 0 ? values.get(row) : null;
+		}
+	}
+}
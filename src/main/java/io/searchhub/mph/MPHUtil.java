@@ -1,20 +1,74 @@
 package io.searchhub.mph;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import org.minperf.BitBuffer;
 import org.minperf.RecSplitBuilder;
 import org.minperf.RecSplitEvaluator;
+import org.minperf.universal.LongHash;
 import org.minperf.universal.StringHash;
 import org.minperf.universal.UniversalHash;
 
 class MPHUtil {
 
-	public final static Function<String, Integer> EMPTY_MAP_FUNCTION = x -> -1;
+	public final static ToIntFunction<String> EMPTY_MAP_FUNCTION = x -> -1;
 
+	// seed of the verification fingerprints, independent of the seeds of the slot hashing
+	static final long FINGERPRINT_SEED = 0x5851F42D4C957F2DL;
+
+	/**
+	 * Verification fingerprint of a key in the slot of a {@link StringHash} based function. All string collections with
+	 * a fingerprint per slot use it, so their data stays interchangeable.
+	 */
+	static int keyFingerprint(String key) {
+		return (int) StringHash.getSipHash24(key, 23L, 31L);
+	}
+
+	/**
+	 * Verification fingerprint of a key that was normalized at build time.
+	 * It does not correlate with the slot of the key, because the slot hashing uses other seeds.
+	 */
+	static int normalizedKeyFingerprint(CharSequence normalizedKey) {
+		return (int) CharSequenceHash.hash(normalizedKey, FINGERPRINT_SEED);
+	}
+
+	/**
+	 * Uses the default {@link MPHBuildCache} if one is set.
+	 */
 	static byte[] getMphFunctionData(int leafSize, int avgBucketSize, Set<String> keys) {
-		UniversalHash<String> hashFunction = new StringHash();
+		MPHBuildCache buildCache = MPHBuildCache.getDefault();
+		if (buildCache != null) return buildCache.getMphFunctionData(leafSize, avgBucketSize, keys);
+		return generateMphFunctionData(leafSize, avgBucketSize, keys);
+	}
+
+	static byte[] generateMphFunctionData(int leafSize, int avgBucketSize, Set<String> keys) {
+		return getMphFunctionData(new StringHash(), leafSize, avgBucketSize, keys);
+	}
+
+	/**
+	 * Generate the function data for keys that were normalized at build time. They are hashed with {@link CharSequenceHash}.
+	 */
+	static byte[] getNormalizedMphFunctionData(int leafSize, int avgBucketSize, Collection<CharSequence> normalizedKeys) {
+		return getMphFunctionData(new CharSequenceHash(), leafSize, avgBucketSize, normalizedKeys);
+	}
+
+	static byte[] getLongMphFunctionData(int leafSize, int avgBucketSize, long[] keys) {
+		List<Long> boxedKeys = new ArrayList<>(keys.length);
+		for (long key : keys) {
+			boxedKeys.add(key);
+		}
+		return getMphFunctionData(new LongHash(), leafSize, avgBucketSize, boxedKeys);
+	}
+
+	static byte[] getByteArrayMphFunctionData(int leafSize, int avgBucketSize, Collection<byte[]> keys) {
+		return getMphFunctionData(new ByteArrayHash(), leafSize, avgBucketSize, keys);
+	}
+
+	static <T> byte[] getMphFunctionData(UniversalHash<T> hashFunction, int leafSize, int avgBucketSize, Collection<T> keys) {
 		BitBuffer mphFunctionData = RecSplitBuilder
 				.newInstance(hashFunction)
 				.leafSize(leafSize)
@@ -23,8 +77,27 @@ class MPHUtil {
 		return mphFunctionData.toByteArray();
 	}
 
+	/**
+	 * The returned evaluator keeps no mutable state: it only reads from the function data with absolute bit positions.
+	 * A single instance can therefore be shared by any number of threads without locking.
+	 */
 	static RecSplitEvaluator<String> buildEvaluator(int leafSize, int avgBucketSize, byte[] mphFunctionData) {
-		UniversalHash<String> hashFunction = new StringHash();
+		return buildEvaluator(new StringHash(), leafSize, avgBucketSize, mphFunctionData);
+	}
+
+	static RecSplitEvaluator<CharSequence> buildNormalizedEvaluator(int leafSize, int avgBucketSize, byte[] mphFunctionData) {
+		return buildEvaluator(new CharSequenceHash(), leafSize, avgBucketSize, mphFunctionData);
+	}
+
+	static RecSplitEvaluator<Long> buildLongEvaluator(int leafSize, int avgBucketSize, byte[] mphFunctionData) {
+		return buildEvaluator(new LongHash(), leafSize, avgBucketSize, mphFunctionData);
+	}
+
+	static RecSplitEvaluator<byte[]> buildByteArrayEvaluator(int leafSize, int avgBucketSize, byte[] mphFunctionData) {
+		return buildEvaluator(new ByteArrayHash(), leafSize, avgBucketSize, mphFunctionData);
+	}
+
+	static <T> RecSplitEvaluator<T> buildEvaluator(UniversalHash<T> hashFunction, int leafSize, int avgBucketSize, byte[] mphFunctionData) {
 		return RecSplitBuilder
 				.newInstance(hashFunction)
 				.leafSize(leafSize)
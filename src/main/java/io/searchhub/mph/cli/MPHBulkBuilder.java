@@ -0,0 +1,338 @@
+package io.searchhub.mph.cli;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import io.searchhub.mph.MPHBinaryFormat;
+import io.searchhub.mph.MPHStringIntMap;
+import io.searchhub.mph.MPHStringMap;
+import io.searchhub.mph.MPHStringSet;
+
+/**
+ * Command line entry point that builds a collection from a TSV, CSV or line file and writes it serialized.
+ * <pre>
+ * java -cp searchhub-collections.jar:minperf.jar io.searchhub.mph.cli.MPHBulkBuilder --type intmap --input queries.tsv.gz --output queries.mph
+ * </pre>
+ * Input files ending with ".gz" are decompressed. Lines are parsed in parallel, the build time and the size in bits per key are printed.
+ * The output is written with Java serialization of the SerializableData, or with {@link MPHBinaryFormat} for sets and int maps.
+ */
+public class MPHBulkBuilder {
+
+	static final String USAGE = String.join("\n",
+			"Usage: java -cp searchhub-collections.jar:minperf.jar io.searchhub.mph.cli.MPHBulkBuilder --type set|map|intmap --input FILE --output FILE [options]",
+			"  --format tsv|csv|lines      input format, default: tsv ('lines' only for sets)",
+			"  --key-column N              0-based column of the key, default: 0",
+			"  --value-column N            0-based column of the value, default: 1",
+			"  --skip-header               ignore the first line",
+			"  --output-format java|binary java serialization of the SerializableData (default) or MPHBinaryFormat (set and intmap only)",
+			"  --threads N                 parallelism of the parser, default: available processors",
+			"  --leaf-size N               RecSplit leaf size, larger is smaller but slower to build, default: 8",
+			"  --avg-bucket-size N         RecSplit average bucket size, larger is smaller but slower to build, default: 32");
+
+	enum Type {
+		SET, MAP, INTMAP
+	}
+
+	enum Format {
+		TSV, CSV, LINES
+	}
+
+	enum OutputFormat {
+		JAVA, BINARY
+	}
+
+	static final class Options {
+
+		Type         type;
+		Path         input;
+		Path         output;
+		Format       format        = Format.TSV;
+		OutputFormat outputFormat  = OutputFormat.JAVA;
+		int          keyColumn     = 0;
+		int          valueColumn   = 1;
+		boolean      skipHeader;
+		int          threads       = Runtime.getRuntime().availableProcessors();
+		int          leafSize      = 8;
+		int          avgBucketSize = 32;
+
+		/**
+		 * @throws IllegalArgumentException for unknown, missing or invalid arguments
+		 */
+		static Options parse(String[] args) {
+			Options options = new Options();
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if ("--skip-header".equals(arg)) {
+					options.skipHeader = true;
+					continue;
+				}
+				if (i + 1 >= args.length) throw new IllegalArgumentException("missing value for " + arg);
+				String value = args[++i];
+				switch (arg) {
+					case "--type":
+						options.type = Type.valueOf(value.toUpperCase(Locale.ROOT));
+						break;
+					case "--input":
+						options.input = Paths.get(value);
+						break;
+					case "--output":
+						options.output = Paths.get(value);
+						break;
+					case "--format":
+						options.format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+						break;
+					case "--output-format":
+						options.outputFormat = OutputFormat.valueOf(value.toUpperCase(Locale.ROOT));
+						break;
+					case "--key-column":
+						options.keyColumn = Integer.parseInt(value);
+						break;
+					case "--value-column":
+						options.valueColumn = Integer.parseInt(value);
+						break;
+					case "--threads":
+						options.threads = Integer.parseInt(value);
+						break;
+					case "--leaf-size":
+						options.leafSize = Integer.parseInt(value);
+						break;
+					case "--avg-bucket-size":
+						options.avgBucketSize = Integer.parseInt(value);
+						break;
+					default:
+						throw new IllegalArgumentException("unknown argument " + arg);
+				}
+			}
+			if (options.type == null || options.input == null || options.output == null) {
+				throw new IllegalArgumentException("--type, --input and --output are required");
+			}
+			if (options.format == Format.LINES && options.type != Type.SET) {
+				throw new IllegalArgumentException("format 'lines' can only be used for sets");
+			}
+			if (options.outputFormat == OutputFormat.BINARY && options.type == Type.MAP) {
+				throw new IllegalArgumentException("output format 'binary' is not supported for maps");
+			}
+			if (options.threads < 1) throw new IllegalArgumentException("--threads must be positive");
+			if (options.leafSize < 1) throw new IllegalArgumentException("--leaf-size must be positive");
+			if (options.avgBucketSize < 1) throw new IllegalArgumentException("--avg-bucket-size must be positive");
+			return options;
+		}
+	}
+
+	public static void main(String[] args) {
+		System.exit(run(args, System.out, System.err));
+	}
+
+	/**
+	 * @return exit code: 0 on success, 1 on build errors, 2 on invalid arguments
+	 */
+	static int run(String[] args, PrintStream out, PrintStream err) {
+		Options options;
+		try {
+			options = Options.parse(args);
+		}
+		catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return 2;
+		}
+		try {
+			build(options, out);
+			return 0;
+		}
+		catch (IOException | RuntimeException e) {
+			err.println("build failed: " + e);
+			return 1;
+		}
+	}
+
+	static void build(Options options, PrintStream out) throws IOException {
+		long start = System.nanoTime();
+		ConcurrentMap<String, String> entries = read(options);
+		long readNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		Object collection;
+		Serializable data;
+		byte[] mphFunctionData;
+		switch (options.type) {
+			case SET:
+				MPHStringSet set = new MPHStringSet(entries.keySet(), null, options.leafSize, options.avgBucketSize);
+				MPHStringSet.SerializableData setData = set.toSerializable();
+				collection = set;
+				data = setData;
+				mphFunctionData = setData.getMphFunctionData();
+				break;
+			case INTMAP:
+				MPHStringIntMap intMap = MPHStringIntMap.build(entries.keySet(), key -> parseInt(key, entries.get(key)), options.leafSize, options.avgBucketSize);
+				collection = intMap;
+				data = intMap.getSerializableMphMapData();
+				mphFunctionData = intMap.getSerializableMphMapData().getMphFunctionData();
+				break;
+			default:
+				MPHStringMap<String> map = MPHStringMap.buildDeduplicated(entries.keySet(), entries::get, null, options.leafSize, options.avgBucketSize);
+				collection = map;
+				data = map.getSerializableMphMapData();
+				mphFunctionData = map.getSerializableMphMapData().getMphFunctionData();
+		}
+		long buildNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		write(options, collection, data);
+		long writeNanos = System.nanoTime() - start;
+
+		long keyCount = entries.size();
+		long outputBytes = Files.size(options.output);
+		out.printf(Locale.ROOT, "keys:          %,d%n", keyCount);
+		out.printf(Locale.ROOT, "read + parse:  %,d ms%n", TimeUnit.NANOSECONDS.toMillis(readNanos));
+		out.printf(Locale.ROOT, "build:         %,d ms%n", TimeUnit.NANOSECONDS.toMillis(buildNanos));
+		out.printf(Locale.ROOT, "write:         %,d ms%n", TimeUnit.NANOSECONDS.toMillis(writeNanos));
+		out.printf(Locale.ROOT, "hash function: %.2f bits/key%n", keyCount == 0 ? 0 : mphFunctionData.length * 8.0 / keyCount);
+		out.printf(Locale.ROOT, "output:        %.2f bits/key (%,d bytes)%n", keyCount == 0 ? 0 : outputBytes * 8.0 / keyCount, outputBytes);
+	}
+
+	private static Integer parseInt(String key, String value) {
+		try {
+			return Integer.valueOf(value.trim());
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("value '" + value + "' of key '" + key + "' is no int", e);
+		}
+	}
+
+	/**
+	 * @return the values by key, values are null for sets
+	 * @throws IllegalArgumentException if a line has too few columns or a key occurs with different values
+	 */
+	static ConcurrentMap<String, String> read(Options options) throws IOException {
+		ConcurrentMap<String, String> entries = new ConcurrentHashMap<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(options.input), StandardCharsets.UTF_8), 1 << 16)) {
+			if (options.skipHeader) reader.readLine();
+			ForkJoinPool pool = new ForkJoinPool(options.threads);
+			try (Stream<String> lines = reader.lines()) {
+				pool.submit(() -> lines.parallel().filter(line -> !line.isEmpty()).forEach(line -> addEntry(entries, line, options))).get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while reading " + options.input);
+			}
+			catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+				if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+				throw new IllegalStateException(cause);
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+		return entries;
+	}
+
+	private static InputStream open(Path input) throws IOException {
+		InputStream in = Files.newInputStream(input);
+		return input.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+	}
+
+	private static final String NO_VALUE = "";
+
+	private static void addEntry(ConcurrentMap<String, String> entries, String line, Options options) {
+		if (options.format == Format.LINES) {
+			entries.put(line, NO_VALUE);
+			return;
+		}
+		List<String> columns = options.format == Format.TSV ? splitTsv(line) : splitCsv(line);
+		if (columns.size() <= options.keyColumn) throw new IllegalArgumentException("missing key column in line: " + line);
+		String key = columns.get(options.keyColumn);
+		String value = NO_VALUE;
+		if (options.type != Type.SET) {
+			if (columns.size() <= options.valueColumn) throw new IllegalArgumentException("missing value column in line: " + line);
+			value = columns.get(options.valueColumn);
+		}
+		String previous = entries.putIfAbsent(key, value);
+		if (previous != null && !previous.equals(value)) {
+			throw new IllegalArgumentException("key '" + key + "' occurs with different values '" + previous + "' and '" + value + "'");
+		}
+	}
+
+	static List<String> splitTsv(String line) {
+		List<String> columns = new ArrayList<>();
+		int start = 0;
+		for (int tab = line.indexOf('\t'); tab >= 0; tab = line.indexOf('\t', start)) {
+			columns.add(line.substring(start, tab));
+			start = tab + 1;
+		}
+		columns.add(line.substring(start));
+		return columns;
+	}
+
+	/**
+	 * Split a CSV line with optionally double-quoted fields, where quotes inside quoted fields are escaped by doubling them.
+	 * Line breaks inside quoted fields are not supported.
+	 */
+	static List<String> splitCsv(String line) {
+		List<String> columns = new ArrayList<>();
+		StringBuilder column = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"') {
+					if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						column.append('"');
+						i++;
+					}
+					else {
+						quoted = false;
+					}
+				}
+				else {
+					column.append(c);
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				columns.add(column.toString());
+				column.setLength(0);
+			}
+			else {
+				column.append(c);
+			}
+		}
+		columns.add(column.toString());
+		return columns;
+	}
+
+	private static void write(Options options, Object collection, Serializable data) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(options.output), 1 << 16)) {
+			if (options.outputFormat == OutputFormat.BINARY) {
+				DataOutputStream dataOut = new DataOutputStream(out);
+				if (collection instanceof MPHStringSet) {
+					MPHBinaryFormat.write((MPHStringSet) collection, dataOut);
+				}
+				else {
+					MPHBinaryFormat.write((MPHStringIntMap) collection, dataOut);
+				}
+				dataOut.flush();
+			}
+			else {
+				ObjectOutputStream objectOut = new ObjectOutputStream(out);
+				objectOut.writeObject(data);
+				objectOut.flush();
+			}
+		}
+	}
+}
@@ -3,11 +3,14 @@ package io.searchhub.mph.jackson;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.fasterxml.jackson.annotation.*;
 
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.searchhub.mph.KeyNormalization;
 import io.searchhub.mph.MPHStringMap;
+import io.searchhub.mph.MPHStringSet;
 import io.searchhub.mph.PackageVersion;
 
 public class MPHJacksonModule extends SimpleModule {
@@ -19,6 +22,7 @@ public class MPHJacksonModule extends SimpleModule {
 
 		super.setMixInAnnotation(Map.class, MapAnnotations.class);
 		super.setMixInAnnotation(MPHStringMap.SerializableData.class, SerializableDataAnnotations.class);
+		super.setMixInAnnotation(MPHStringSet.SerializableData.class, SetSerializableDataAnnotations.class);
 	}
 
 	@JsonTypeInfo(
@@ -33,5 +37,14 @@ public class MPHJacksonModule extends SimpleModule {
 	public static abstract class SerializableDataAnnotations<V> {
 		@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "type")
 		protected List<V> values;
+
+		// omitted without normalization, so the output stays readable for versions without this property
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		protected Set<KeyNormalization> keyNormalization;
+	}
+
+	public static abstract class SetSerializableDataAnnotations {
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		protected Set<KeyNormalization> keyNormalization;
 	}
 }
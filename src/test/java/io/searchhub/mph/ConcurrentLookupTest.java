@@ -0,0 +1,133 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress test that runs verified lookups on shared instances with an increasing number of threads.
+ * It checks the lookup results under concurrency. The throughput depends on the available cores and machine load,
+ * so {@link #lookupScaling()} only reports it per thread count.
+ */
+class ConcurrentLookupTest {
+
+	private static final int  KEY_COUNT        = 100_000;
+	private static final long RUN_DURATION_MS  = 300;
+	private static final int  MAX_THREAD_COUNT = Math.max(2, Math.min(16, Runtime.getRuntime().availableProcessors()));
+
+	private static String[]             keys;
+	// unknown keys, precomputed so the lookup loop does not allocate
+	private static String[]             missKeys;
+	private static Map<String, Integer> testData;
+
+	@BeforeAll
+	static void setup() {
+		keys = new String[KEY_COUNT];
+		missKeys = new String[KEY_COUNT];
+		testData = new HashMap<>(KEY_COUNT * 2);
+		Random random = new Random(42);
+		for (int i = 0; i < KEY_COUNT; i++) {
+			keys[i] = "query " + i + " " + random.nextInt();
+			missKeys[i] = keys[i] + "x";
+			testData.put(keys[i], i);
+		}
+	}
+
+	@Test
+	void mphStringMap() throws Exception {
+		MPHStringMap<Integer> map = MPHStringMap.build(testData);
+		stress(i -> {
+			Integer value = map.get(keys[i]);
+			return value != null && value == i && map.get(missKeys[i]) == null;
+		});
+	}
+
+	@Test
+	void mphStringIntMap() throws Exception {
+		MPHStringIntMap map = MPHStringIntMap.build(testData);
+		stress(i -> {
+			Integer value = map.get(keys[i]);
+			return value != null && value == i && !map.containsKey(missKeys[i]) && map.containsValue(i);
+		});
+	}
+
+	@Test
+	void mphStringSet() throws Exception {
+		MPHStringSet set = new MPHStringSet(testData.keySet());
+		stress(i -> set.contains(keys[i]) && !set.contains(missKeys[i]));
+	}
+
+	@Test
+	void lookupScaling() throws Exception {
+		MPHStringMap<Integer> map = MPHStringMap.build(testData);
+		MPHStringIntMap intMap = MPHStringIntMap.build(testData);
+		MPHStringSet set = new MPHStringSet(testData.keySet());
+		Map<String, IntPredicate> lookups = new LinkedHashMap<>();
+		lookups.put("MPHStringMap", i -> map.get(keys[i]) != null);
+		lookups.put("MPHStringIntMap", i -> intMap.get(keys[i]) != null);
+		lookups.put("MPHStringSet", i -> set.contains(keys[i]));
+		for (Map.Entry<String, IntPredicate> lookup : lookups.entrySet()) {
+			for (int threadCount = 1; threadCount <= MAX_THREAD_COUNT; threadCount++) {
+				long[] result = run(threadCount, lookup.getValue());
+				assertEquals(-1, result[0]);
+				System.out.printf("%-16s %2d threads: %,14d lookups/s%n", lookup.getKey(), threadCount, result[1] * 1000 / RUN_DURATION_MS);
+			}
+		}
+	}
+
+	private static void stress(IntPredicate verifiedLookup) throws Exception {
+		for (int t = 1; t <= MAX_THREAD_COUNT; t *= 2) {
+			int threadCount = t;
+			long[] firstFailure = run(threadCount, verifiedLookup);
+			assertTrue(firstFailure[1] > 0, "no lookups done with " + threadCount + " threads");
+			assertEquals(-1, firstFailure[0], () -> "wrong lookup result for key " + keys[(int) firstFailure[0]] + " with " + threadCount + " threads");
+		}
+	}
+
+	/**
+	 * @return index of the first key with a wrong result or -1, and the total number of lookups
+	 */
+	private static long[] run(int threadCount, IntPredicate verifiedLookup) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			CyclicBarrier startBarrier = new CyclicBarrier(threadCount);
+			AtomicBoolean stop = new AtomicBoolean(false);
+			List<Future<long[]>> results = new ArrayList<>();
+			for (int t = 0; t < threadCount; t++) {
+				int seed = t;
+				results.add(executor.submit(() -> {
+					startBarrier.await();
+					long lookups = 0;
+					int failedKey = -1;
+					int i = seed * 7919 % KEY_COUNT;
+					while (!stop.get() && failedKey < 0) {
+						for (int n = 0; n < 1_000; n++) {
+							if (!verifiedLookup.test(i) && failedKey < 0) failedKey = i;
+							i = (i + 1) % KEY_COUNT;
+						}
+						lookups += 1_000;
+					}
+					return new long[]{ failedKey, lookups };
+				}));
+			}
+			Thread.sleep(RUN_DURATION_MS);
+			stop.set(true);
+			long[] total = { -1, 0 };
+			for (Future<long[]> result : results) {
+				long[] threadResult = result.get(30, TimeUnit.SECONDS);
+				if (total[0] < 0) total[0] = threadResult[0];
+				total[1] += threadResult[1];
+			}
+			return total;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
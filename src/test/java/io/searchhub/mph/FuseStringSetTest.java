@@ -0,0 +1,114 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchhub.mph.FuseStringSet.SerializableData;
+import org.junit.jupiter.api.Test;
+
+class FuseStringSetTest {
+
+	@Test
+	public void standardUsageTest() {
+		FuseStringSet fuseSet = new FuseStringSet("a", "b", "c");
+		assertTrue(fuseSet.contains("a"));
+		assertTrue(fuseSet.contains("b"));
+		assertTrue(fuseSet.contains("c"));
+		assertEquals(3, fuseSet.size());
+	}
+
+	@Test
+	public void borderCaseTest() {
+		assertTrue(new FuseStringSet("").contains(""));
+		assertFalse(new FuseStringSet(Collections.emptySet()).contains(""));
+		assertFalse(new FuseStringSet(Collections.emptySet()).contains(null));
+		assertFalse(new FuseStringSet("").contains(null));
+		assertTrue(new FuseStringSet(Collections.emptySet()).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> new FuseStringSet(Collections.singleton("a"), 12));
+	}
+
+	@Test
+	public void smallSets() {
+		Set<String> keys = new HashSet<>();
+		for (int i = 0; i < 100; i++) {
+			keys.add("key " + i);
+			FuseStringSet fuseSet = new FuseStringSet(keys);
+			for (String key : keys) {
+				assertTrue(fuseSet.contains(key), key + " must be in set of size " + keys.size());
+			}
+		}
+	}
+
+	@Test
+	public void falsePositiveRate8Bit() {
+		assertFalsePositiveRate(8, 0.01);
+	}
+
+	@Test
+	public void falsePositiveRate16Bit() {
+		assertFalsePositiveRate(16, 0.0005);
+	}
+
+	private static void assertFalsePositiveRate(int fingerprintBits, double maxFalsePositiveRate) {
+		Set<String> keys = new HashSet<>();
+		for (int i = 0; i < 100_000; i++) {
+			keys.add("key " + i);
+		}
+		FuseStringSet fuseSet = new FuseStringSet(keys, fingerprintBits);
+		for (String key : keys) {
+			assertTrue(fuseSet.contains(key), key + " must be in the set");
+		}
+
+		int falsePositives = 0;
+		int probes = 100_000;
+		for (int i = 0; i < probes; i++) {
+			if (fuseSet.contains("other " + i)) falsePositives++;
+		}
+		double falsePositiveRate = (double) falsePositives / probes;
+		assertTrue(falsePositiveRate < maxFalsePositiveRate, "false positive rate too high: " + falsePositiveRate);
+		assertTrue(fuseSet.bitsPerKey() < fingerprintBits * 1.2, "unexpected bits per key: " + fuseSet.bitsPerKey());
+	}
+
+	@Test
+	public void javaSerializationRoundTrip() throws IOException, ClassNotFoundException {
+		FuseStringSet fuseSet = new FuseStringSet("Aa", "Ba", "Ca", "Da");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+			objectOut.writeObject(fuseSet.toSerializable());
+		}
+		ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()));
+		FuseStringSet deserialized = new FuseStringSet((SerializableData) objectInputStream.readObject());
+		for (String key : new String[] { "Aa", "Ba", "Ca", "Da" }) {
+			assertTrue(deserialized.contains(key));
+		}
+		assertEquals(4, deserialized.size());
+	}
+
+	@Test
+	public void jsonSerializationRoundTrip() throws JsonProcessingException {
+		Set<String> keys = new HashSet<>();
+		for (int i = 0; i < 1_000; i++) {
+			keys.add("key " + i);
+		}
+		FuseStringSet fuseSet = new FuseStringSet(keys, 16);
+
+		ObjectMapper mapper = new ObjectMapper();
+		String serialized = mapper.writeValueAsString(fuseSet.toSerializable());
+		FuseStringSet deserialized = new FuseStringSet(mapper.readValue(serialized, SerializableData.class));
+		for (String key : keys) {
+			assertTrue(deserialized.contains(key));
+		}
+		for (int i = 0; i < 1_000; i++) {
+			assertEquals(fuseSet.contains("other " + i), deserialized.contains("other " + i));
+		}
+
+		String serializedEmpty = mapper.writeValueAsString(new FuseStringSet().toSerializable());
+		assertTrue(new FuseStringSet(mapper.readValue(serializedEmpty, SerializableData.class)).isEmpty());
+	}
+}
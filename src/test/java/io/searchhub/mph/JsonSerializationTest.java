@@ -9,9 +9,7 @@ import lombok.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -109,6 +107,27 @@ public class JsonSerializationTest {
 		}
 	}
 
+	@Test
+	public void testKeyNormalizationOnlyWrittenIfSet() throws JsonProcessingException {
+		ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+		Set<String> mapFields = fieldNames(mapper, mapper.writeValueAsString(underTest.getSerializableMphMapData()));
+		assertEquals(new HashSet<>(Arrays.asList("leafSize", "avgBucketSize", "mphFunctionData", "keyValueMap", "values")), mapFields);
+		Set<String> setFields = fieldNames(mapper, mapper.writeValueAsString(new MPHStringSet(testData.keySet()).toSerializable()));
+		assertEquals(new HashSet<>(Arrays.asList("leafSize", "avgBucketSize", "mphFunctionData", "secondaryHashes")), setFields);
+
+		Set<KeyNormalization> normalization = EnumSet.of(KeyNormalization.LOWER_CASE);
+		String normalizedJson = mapper.writeValueAsString(MPHStringMap.build(Collections.singletonMap("Shoes", "target"), normalization).getSerializableMphMapData());
+		assertTrue(fieldNames(mapper, normalizedJson).contains("keyNormalization"));
+		MPHStringMap<String> normalizedMap = MPHStringMap.fromData(mapper.readValue(normalizedJson, new TypeReference<MPHStringMap.SerializableData<String>>() {}));
+		assertEquals("target", normalizedMap.get("SHOES"));
+	}
+
+	private static Set<String> fieldNames(ObjectMapper mapper, String json) throws JsonProcessingException {
+		Set<String> fieldNames = new HashSet<>();
+		mapper.readTree(json).fieldNames().forEachRemaining(fieldNames::add);
+		return fieldNames;
+	}
+
 	@Test
 	public void testMapType() throws JsonProcessingException {
 		ObjectMapper mapper = new ObjectMapper();
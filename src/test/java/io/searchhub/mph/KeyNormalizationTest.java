@@ -0,0 +1,119 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+class KeyNormalizationTest {
+
+	private static final Set<KeyNormalization> ALL = EnumSet.of(KeyNormalization.NFC, KeyNormalization.TRIM, KeyNormalization.LOWER_CASE);
+
+	@Test
+	void mapLookupWithRawKeys() {
+		Map<String, Integer> data = new HashMap<>();
+		data.put("Running Shoes", 1);
+		data.put("café", 2);
+		data.put(" T-Shirt ", 3);
+		MPHStringMap<Integer> map = MPHStringMap.build(data, ALL);
+
+		assertEquals(1, map.get("running shoes"));
+		assertEquals(1, map.get("  RUNNING SHOES\t"));
+		// decomposed e + combining acute accent
+		assertEquals(2, map.get("CAFE\u0301"));
+		assertEquals(2, map.get("Café "));
+		assertEquals(3, map.get("t-shirt"));
+		assertTrue(map.containsKey("T-SHIRT"));
+		assertNull(map.get("running"));
+		assertNull(map.get("shoes running"));
+	}
+
+	@Test
+	void setLookupWithRawKeys() {
+		MPHStringSet set = new MPHStringSet(new HashSet<>(Arrays.asList("Adidas", "Nike ", "PUMA")), EnumSet.of(KeyNormalization.TRIM, KeyNormalization.LOWER_CASE));
+		assertTrue(set.contains("adidas"));
+		assertTrue(set.contains(" NIKE"));
+		assertTrue(set.contains("Puma"));
+		assertFalse(set.contains("reebok"));
+		assertFalse(set.contains("nik"));
+	}
+
+	@Test
+	void normalizedSetRejectsUnknownKeys() {
+		Set<String> keys = new HashSet<>();
+		for (int i = 0; i < 10_000; i++) {
+			keys.add("key" + i);
+		}
+		MPHStringSet set = new MPHStringSet(keys, ALL);
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (set.contains("unknown" + i)) {
+				falsePositives++;
+			}
+		}
+		// 32 bit fingerprints: the expected count is far below one
+		assertTrue(falsePositives <= 2, "false positives: " + falsePositives);
+	}
+
+	@Test
+	void duplicateAfterNormalization() {
+		Map<String, Integer> data = new HashMap<>();
+		data.put("Shoes", 1);
+		data.put("shoes ", 2);
+		assertThrows(IllegalArgumentException.class, () -> MPHStringMap.build(data, ALL));
+		assertThrows(IllegalArgumentException.class, () -> new MPHStringSet(data.keySet(), ALL));
+		assertThrows(IllegalArgumentException.class, () -> MPHStringMap.build(data, EnumSet.of(KeyNormalization.NFC, KeyNormalization.NFKC)));
+	}
+
+	@Test
+	void withoutNormalizationKeysAreExact() {
+		MPHStringMap<Integer> map = MPHStringMap.build(Collections.singletonMap("Shoes", 1), EnumSet.noneOf(KeyNormalization.class));
+		assertEquals(1, map.get("Shoes"));
+		assertNull(map.get("shoes"));
+	}
+
+	@Test
+	void nullNormalizationKeysAreExact() {
+		MPHStringMap<Integer> map = MPHStringMap.build(Collections.singletonMap("Shoes", 1), null);
+		assertEquals(1, map.get("Shoes"));
+		assertNull(map.get("shoes"));
+	}
+
+	@Test
+	void normalizationIsSerialized() throws IOException, ClassNotFoundException {
+		MPHStringSet set = new MPHStringSet(Collections.singleton("Shoes"), ALL);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+			objectOut.writeObject(set.toSerializable());
+		}
+		ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()));
+		MPHStringSet deserializedSet = new MPHStringSet((MPHStringSet.SerializableData) objectInputStream.readObject());
+		assertTrue(deserializedSet.contains(" SHOES "));
+	}
+
+	@Test
+	void normalizationIsSerializedToJson() throws JsonProcessingException {
+		MPHStringMap<String> map = MPHStringMap.build(Collections.singletonMap("Shoes", "target"), ALL);
+		ObjectMapper mapper = new ObjectMapper();
+		String json = mapper.writeValueAsString(map.getSerializableMphMapData());
+		MPHStringMap<String> deserializedMap = MPHStringMap.fromData(mapper.readValue(json, new TypeReference<MPHStringMap.SerializableData<String>>() {}));
+		assertEquals("target", deserializedMap.get("SHOES "));
+	}
+
+	@Test
+	void normalizedKeyHashCodeMatchesString() {
+		KeyNormalizer keyNormalizer = KeyNormalizer.of(ALL);
+		for (String key : new String[] { " Foo Bar ", "CAFE\u0301", "", "   ", "ÄPFEL" }) {
+			String normalized = keyNormalizer.normalizeToString(key);
+			KeyNormalizer.NormalizedKey normalizedKey = keyNormalizer.normalize(key);
+			assertEquals(normalized, normalizedKey.toString());
+			assertEquals(normalized.hashCode(), normalizedKey.hashCode());
+			assertEquals(CharSequenceHash.hash(normalized, 7), CharSequenceHash.hash(normalizedKey, 7));
+		}
+	}
+}
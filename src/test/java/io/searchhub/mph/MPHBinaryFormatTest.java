@@ -0,0 +1,176 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+class MPHBinaryFormatTest {
+
+	private static final String NATIVE_IMAGE_DIR = "/META-INF/native-image/io.searchhub/searchhub-collections/";
+
+	@Test
+	void stringSetRoundTrip() throws IOException {
+		MPHStringSet set = new MPHStringSet(new HashSet<>(Arrays.asList("Foo", "bar ")), EnumSet.of(KeyNormalization.LOWER_CASE, KeyNormalization.TRIM));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MPHBinaryFormat.write(set, new DataOutputStream(bytes));
+
+		MPHStringSet loaded = MPHBinaryFormat.readStringSet(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(2, loaded.size());
+		assertTrue(loaded.contains("foo"));
+		assertTrue(loaded.contains(" BAR"));
+		assertFalse(loaded.contains("baz"));
+	}
+
+	@Test
+	void stringIntMapRoundTrip() throws IOException {
+		Map<String, Integer> testData = new HashMap<>();
+		for (int i = 0; i < 1_000; i++) {
+			testData.put("query " + i, -i);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MPHBinaryFormat.write(MPHStringIntMap.build(testData), new DataOutputStream(bytes));
+
+		MPHStringIntMap loaded = MPHBinaryFormat.readStringIntMap(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		testData.forEach((key, value) -> assertEquals(value, loaded.get(key)));
+		assertNull(loaded.get("unknown"));
+
+		assertThrows(IOException.class, () -> MPHBinaryFormat.readStringSet(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+		assertThrows(IOException.class, () -> MPHBinaryFormat.readStringIntMap(new DataInputStream(new ByteArrayInputStream(new byte[]{ 1, 2, 3, 4 }))));
+	}
+
+	@Test
+	void corruptLengths() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MPHBinaryFormat.write(MPHStringIntMap.build(Collections.singletonMap("a", 1)), new DataOutputStream(bytes));
+		byte[] valid = bytes.toByteArray();
+		// magic, type, leafSize, avgBucketSize, then the length prefix of the function data
+		int lengthOffset = 4 + 1 + 4 + 4;
+		for (int corruptLength : new int[] { -1, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE - 8, 1 << 30 }) {
+			byte[] corrupt = valid.clone();
+			ByteBuffer.wrap(corrupt).putInt(lengthOffset, corruptLength);
+			assertThrows(IOException.class, () -> MPHBinaryFormat.readStringIntMap(new DataInputStream(new ByteArrayInputStream(corrupt))), "length " + corruptLength);
+		}
+		// the length prefix of the values, which follows the function data
+		int valuesLengthOffset = lengthOffset + 4 + ByteBuffer.wrap(valid).getInt(lengthOffset);
+		for (int corruptLength : new int[] { -5, Integer.MAX_VALUE - 8 }) {
+			byte[] corrupt = valid.clone();
+			ByteBuffer.wrap(corrupt).putInt(valuesLengthOffset, corruptLength);
+			assertThrows(IOException.class, () -> MPHBinaryFormat.readStringIntMap(new DataInputStream(new ByteArrayInputStream(corrupt))), "length " + corruptLength);
+		}
+		// truncated input
+		byte[] truncated = Arrays.copyOf(valid, valid.length - 3);
+		assertThrows(IOException.class, () -> MPHBinaryFormat.readStringIntMap(new DataInputStream(new ByteArrayInputStream(truncated))));
+	}
+
+	@Test
+	void emptyCollections() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		MPHBinaryFormat.write(new MPHStringSet(), out);
+		MPHBinaryFormat.write(MPHStringIntMap.build(new HashMap<>()), out);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertTrue(MPHBinaryFormat.readStringSet(in).isEmpty());
+		assertTrue(MPHBinaryFormat.readStringIntMap(in).isEmpty());
+	}
+
+	@Test
+	void nativeImageMetadataReferencesExistingClasses() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper();
+		for (String config : Arrays.asList("reflect-config.json", "serialization-config.json")) {
+			try (InputStream in = getClass().getResourceAsStream(NATIVE_IMAGE_DIR + config)) {
+				assertNotNull(in, config);
+				for (JsonNode entry : objectMapper.readTree(in)) {
+					assertNotNull(Class.forName(entry.get("name").asText()));
+				}
+			}
+		}
+	}
+
+	@Test
+	void nativeImageSerializationConfigListsSerializedClasses() throws Exception {
+		Set<String> registered = new HashSet<>();
+		try (InputStream in = getClass().getResourceAsStream(NATIVE_IMAGE_DIR + "serialization-config.json")) {
+			for (JsonNode entry : new ObjectMapper().readTree(in)) {
+				registered.add(entry.get("name").asText());
+			}
+		}
+		Set<String> keys = new HashSet<>(Arrays.asList("Shoes", "Shirt", "Socks"));
+		List<byte[]> byteKeys = Arrays.asList(new byte[] { 1 }, new byte[] { 2 });
+		Map<String, String> data = new HashMap<>();
+		keys.forEach(key -> data.put(key, key.toLowerCase()));
+		Map<String, Set<String>> sets = new LinkedHashMap<>();
+		sets.put("brands", keys);
+		Set<KeyNormalization> normalization = EnumSet.of(KeyNormalization.TRIM, KeyNormalization.LOWER_CASE);
+
+		Set<String> written = serializedClassNames(Arrays.asList(
+				new FuseStringSet("a", "b").toSerializable(),
+				MPHLargeStringIntMap.builder(3).put("a", 3).put("b", 2).build().getSerializableMphMapData(),
+				MPHMembershipIndex.build(sets).getSerializableData(),
+				MPHStringIndex.build(keys).getSerializableData(),
+				MPHStringIntArrayMap.build(Collections.singletonMap("a", new int[] { 1, 2 })).getSerializableMphMapData(),
+				MPHStringIntMap.build(Collections.singletonMap("a", 1)).getSerializableMphMapData(),
+				MPHStringMap.build(data, normalization).getSerializableMphMapData(),
+				new MPHStringSet(keys, normalization).toSerializable(),
+				MPHStringTable.builder(keys).intColumn("i", String::length).longColumn("l", String::length).floatColumn("f", String::length).objectColumn("o", String::trim).build().getSerializableData(),
+				MPHLongSet.build(1, 2).getSerializableData(),
+				MPHLongIntMap.build(new long[] { 1, 2 }, key -> (int) key).getSerializableMphMapData(),
+				MPHLongMap.build(new long[] { 1, 2 }, Long::toString).getSerializableMphMapData(),
+				MPHBytesSet.build(byteKeys).getSerializableData(),
+				MPHBytesIntMap.build(byteKeys, Arrays::hashCode).getSerializableMphMapData(),
+				MPHBytesMap.build(byteKeys, Arrays::toString).getSerializableMphMapData(),
+				new MPHKeyPartitioner(16)));
+		Set<String> missing = new TreeSet<>(written);
+		missing.removeAll(registered);
+		assertEquals(Collections.emptySet(), missing);
+		Set<String> unused = new TreeSet<>(registered);
+		unused.removeAll(written);
+		assertEquals(Collections.emptySet(), unused);
+	}
+
+	/**
+	 * Names of all class descriptors, including array and super classes, the serialization writes.
+	 */
+	private static Set<String> serializedClassNames(List<Object> objects) throws IOException {
+		Set<String> classNames = new TreeSet<>();
+		try (ObjectOutputStream out = new ObjectOutputStream(new ByteArrayOutputStream()) {
+			@Override
+			protected void annotateClass(Class<?> type) {
+				classNames.add(type.getName());
+			}
+		}) {
+			for (Object object : objects) {
+				out.writeObject(object);
+			}
+		}
+		return classNames;
+	}
+
+	@Test
+	void nativeImageBuildTimeInitializationListsSingleClasses() throws Exception {
+		Properties properties = new Properties();
+		try (InputStream in = getClass().getResourceAsStream(NATIVE_IMAGE_DIR + "native-image.properties")) {
+			assertNotNull(in);
+			properties.load(in);
+		}
+		String args = properties.getProperty("Args");
+		String prefix = "--initialize-at-build-time=";
+		assertTrue(args.startsWith(prefix), args);
+		List<String> names = Arrays.asList(args.substring(prefix.length()).split(","));
+		for (String name : names) {
+			if (name.equals("org.minperf")) continue;
+			assertNotNull(Class.forName(name));
+		}
+		// static state that must not end up in the image heap
+		assertFalse(names.contains("io.searchhub.mph"));
+		assertFalse(names.contains(MPHBuildCache.class.getName()));
+		assertFalse(names.contains("io.searchhub.mph.PackageVersion"));
+		assertFalse(names.contains(MPHStringInterner.class.getName()));
+	}
+}
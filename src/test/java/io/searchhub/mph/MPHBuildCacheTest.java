@@ -0,0 +1,80 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MPHBuildCacheTest {
+
+	@TempDir
+	Path cacheDir;
+
+	@AfterEach
+	void resetDefault() {
+		MPHBuildCache.setDefault(null);
+	}
+
+	private static Map<String, Integer> testData(int valueOffset) {
+		Map<String, Integer> testData = new HashMap<>();
+		for (int i = 0; i < 1_000; i++) {
+			testData.put("query " + i, i + valueOffset);
+		}
+		return testData;
+	}
+
+	@Test
+	void digestIsOrderIndependent() {
+		List<String> keys = new ArrayList<>(testData(0).keySet());
+		String digest = MPHBuildCache.digest(new LinkedHashSet<>(keys), 8, 32);
+		Collections.reverse(keys);
+		assertEquals(digest, MPHBuildCache.digest(new LinkedHashSet<>(keys), 8, 32));
+		assertNotEquals(digest, MPHBuildCache.digest(new LinkedHashSet<>(keys), 8, 100));
+		keys.set(0, "other");
+		assertNotEquals(digest, MPHBuildCache.digest(new LinkedHashSet<>(keys), 8, 32));
+	}
+
+	@Test
+	void valueOnlyChangeReusesFunction() {
+		MPHBuildCache cache = new MPHBuildCache(cacheDir);
+		MPHBuildCache.setDefault(cache);
+
+		MPHStringIntMap first = MPHStringIntMap.build(testData(0));
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		Map<String, Integer> changedValues = testData(42);
+		MPHStringIntMap second = MPHStringIntMap.build(changedValues);
+		assertEquals(1, cache.getHits());
+		assertArrayEquals(first.getSerializableMphMapData().getMphFunctionData(), second.getSerializableMphMapData().getMphFunctionData());
+		changedValues.forEach((key, value) -> assertEquals(value, second.get(key)));
+
+		// other collection types with the same keys hit the cache as well
+		assertTrue(new MPHStringSet(changedValues.keySet()).contains("query 1"));
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	void corruptEntryIsRegenerated() throws IOException {
+		MPHBuildCache cache = new MPHBuildCache(cacheDir);
+		MPHBuildCache.setDefault(cache);
+		MPHStringIntMap.build(testData(0));
+		try (Stream<Path> files = Files.list(cacheDir)) {
+			Path cacheFile = files.findFirst().orElseThrow(AssertionError::new);
+			Files.write(cacheFile, new byte[]{ 1, 2, 3 });
+		}
+
+		Map<String, Integer> testData = testData(1);
+		MPHStringIntMap map = MPHStringIntMap.build(testData);
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		testData.forEach((key, value) -> assertEquals(value, map.get(key)));
+	}
+}
@@ -0,0 +1,66 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class MPHBytesKeyTest {
+
+	private static List<byte[]> digests(int count) {
+		List<byte[]> keys = new ArrayList<>(count);
+		Random random = new Random(42);
+		Set<ByteBuffer> unique = new HashSet<>();
+		while (keys.size() < count) {
+			// different lengths to cover the tail handling of the hash
+			byte[] key = new byte[1 + random.nextInt(20)];
+			random.nextBytes(key);
+			if (unique.add(ByteBuffer.wrap(key))) keys.add(key);
+		}
+		return keys;
+	}
+
+	private static byte[] otherKey(byte[] key) {
+		byte[] other = Arrays.copyOf(key, key.length + 1);
+		other[key.length] = 1;
+		return other;
+	}
+
+	@Test
+	void bytesSet() {
+		List<byte[]> keys = digests(2_000);
+		MPHBytesSet set = MPHBytesSet.build(keys);
+		for (byte[] key : keys) {
+			assertTrue(set.contains(key.clone()));
+			assertFalse(set.contains(otherKey(key)));
+		}
+		assertTrue(MPHBytesSet.fromData(set.getSerializableData()).contains(keys.get(0).clone()));
+		assertThrows(IllegalArgumentException.class, () -> MPHBytesSet.build(Arrays.asList(new byte[]{ 1 }, new byte[]{ 1 })));
+		assertFalse(MPHBytesSet.build(Collections.emptyList()).contains(new byte[0]));
+	}
+
+	@Test
+	void bytesIntMap() {
+		List<byte[]> keys = digests(2_000);
+		MPHBytesIntMap map = MPHBytesIntMap.build(keys, Arrays::hashCode);
+		for (byte[] key : keys) {
+			assertEquals(Arrays.hashCode(key), map.get(key.clone()));
+			assertNull(map.get(otherKey(key)));
+		}
+		MPHBytesIntMap loaded = MPHBytesIntMap.fromData(map.getSerializableMphMapData());
+		assertEquals(Arrays.hashCode(keys.get(3)), loaded.getOrDefault(keys.get(3), 0));
+	}
+
+	@Test
+	void bytesMap() {
+		List<byte[]> keys = digests(500);
+		MPHBytesMap<String> map = MPHBytesMap.build(keys, Arrays::toString);
+		for (byte[] key : keys) {
+			assertEquals(Arrays.toString(key), map.get(key.clone()));
+			assertFalse(map.containsKey(otherKey(key)));
+		}
+		assertEquals(500, MPHBytesMap.fromData(map.getSerializableMphMapData()).size());
+	}
+}
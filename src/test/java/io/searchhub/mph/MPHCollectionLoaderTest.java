@@ -0,0 +1,117 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class MPHCollectionLoaderTest {
+
+	@Test
+	void loadCatalogInParallel() throws InterruptedException {
+		Map<String, Integer> testData = new HashMap<>();
+		for (int i = 0; i < 1_000; i++) {
+			testData.put("key " + i, i);
+		}
+		MPHStringIntMap.SerializableData intMapData = MPHStringIntMap.build(testData).getSerializableMphMapData();
+		MPHStringMap.SerializableData<Integer> mapData = MPHStringMap.build(testData).getSerializableMphMapData();
+		MPHStringSet.SerializableData setData = new MPHStringSet(testData.keySet()).toSerializable();
+
+		for (boolean deferEvaluatorBuild : new boolean[] { false, true }) {
+			MPHCollectionLoader loader = new MPHCollectionLoader(2, deferEvaluatorBuild);
+			for (int i = 0; i < 10; i++) {
+				loader.addStringIntMap("intMap" + i, () -> intMapData);
+			}
+			loader.addStringMap("map", () -> mapData);
+			loader.addStringSet("set", () -> setData);
+			Map<String, MPHCollectionLoader.LoadResult<?>> results = loader.loadAll();
+
+			assertEquals(12, results.size());
+			for (MPHCollectionLoader.LoadResult<?> result : results.values()) {
+				assertTrue(result.isSuccess(), result.getName() + " failed");
+				assertTrue(result.getLoadTimeMillis() >= 0);
+			}
+			MPHStringIntMap intMap = (MPHStringIntMap) results.get("intMap3").getCollection();
+			MPHStringMap<?> map = (MPHStringMap<?>) results.get("map").getCollection();
+			MPHStringSet set = (MPHStringSet) results.get("set").getCollection();
+			for (Map.Entry<String, Integer> entry : testData.entrySet()) {
+				assertEquals(entry.getValue(), intMap.get(entry.getKey()));
+				assertEquals(entry.getValue(), map.get(entry.getKey()));
+				assertTrue(set.contains(entry.getKey()));
+			}
+		}
+	}
+
+	@Test
+	void failuresAreReportedPerEntry() throws InterruptedException {
+		Map<String, MPHCollectionLoader.LoadResult<?>> results = new MPHCollectionLoader(4, false)
+				.addStringSet("broken", () -> { throw new java.io.IOException("file not found"); })
+				.addStringSet("fine", () -> new MPHStringSet("a").toSerializable())
+				.loadAll();
+
+		assertFalse(results.get("broken").isSuccess());
+		assertNull(results.get("broken").getCollection());
+		assertEquals("file not found", results.get("broken").getFailure().getMessage());
+		assertTrue(results.get("fine").isSuccess());
+		assertThrows(IllegalArgumentException.class, () -> new MPHCollectionLoader(1, false).addStringSet("a", () -> null).addStringSet("a", () -> null));
+	}
+
+	@Test
+	void deferredEvaluatorIsBuiltOnFirstLookup() throws InterruptedException {
+		Map<String, Integer> testData = Collections.singletonMap("key", 1);
+		MPHStringIntMap.SerializableData intMapData = MPHStringIntMap.build(testData).getSerializableMphMapData();
+		MPHStringMap.SerializableData<Integer> mapData = MPHStringMap.build(testData).getSerializableMphMapData();
+		MPHStringSet.SerializableData setData = new MPHStringSet(testData.keySet()).toSerializable();
+
+		for (boolean deferEvaluatorBuild : new boolean[] { false, true }) {
+			Map<String, MPHCollectionLoader.LoadResult<?>> results = new MPHCollectionLoader(2, deferEvaluatorBuild)
+					.addStringIntMap("intMap", () -> intMapData)
+					.addStringMap("map", () -> mapData)
+					.addStringSet("set", () -> setData)
+					.loadAll();
+			MPHStringIntMap intMap = (MPHStringIntMap) results.get("intMap").getCollection();
+			MPHStringMap<?> map = (MPHStringMap<?>) results.get("map").getCollection();
+			MPHStringSet set = (MPHStringSet) results.get("set").getCollection();
+
+			assertEquals(!deferEvaluatorBuild, intMap.isEvaluatorBuilt());
+			assertEquals(!deferEvaluatorBuild, map.isEvaluatorBuilt());
+			assertEquals(!deferEvaluatorBuild, set.isEvaluatorBuilt());
+			// size and serialization do not need the evaluator
+			assertEquals(1, intMap.size());
+			assertSame(intMapData, intMap.getSerializableMphMapData());
+			assertEquals(!deferEvaluatorBuild, intMap.isEvaluatorBuilt());
+
+			assertEquals(1, intMap.get("key"));
+			assertEquals(1, map.get("key"));
+			assertTrue(set.contains("key"));
+			assertTrue(intMap.isEvaluatorBuilt());
+			assertTrue(map.isEvaluatorBuilt());
+			assertTrue(set.isEvaluatorBuilt());
+		}
+	}
+
+	@Test
+	void lazyFunctionIsCreatedOnce() throws InterruptedException {
+		AtomicInteger builds = new AtomicInteger();
+		LazyToIntFunction<String> lazyFunction = new LazyToIntFunction<>(() -> {
+			builds.incrementAndGet();
+			return String::length;
+		});
+		assertEquals(0, builds.get());
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 1_000; i++) {
+					lazyFunction.applyAsInt("abc");
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(1, builds.get());
+	}
+}
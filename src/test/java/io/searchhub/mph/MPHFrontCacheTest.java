@@ -0,0 +1,107 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MPHFrontCacheTest {
+
+	private static Map<String, Integer> testData(int size) {
+		Map<String, Integer> testData = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			testData.put("query " + i, i);
+		}
+		return testData;
+	}
+
+	@Test
+	void stringMapWithCache() {
+		Map<String, Integer> testData = testData(1_000);
+		MPHStringMap<Integer> map = MPHStringMap.build(testData).withFrontCache(64, true);
+		for (int round = 0; round < 3; round++) {
+			for (Map.Entry<String, Integer> entry : testData.entrySet()) {
+				assertEquals(entry.getValue(), map.get(entry.getKey()));
+				assertNull(map.get(entry.getKey() + "x"));
+			}
+		}
+		assertEquals(64, map.getFrontCache().getCapacity());
+		assertEquals(6_000, map.getFrontCache().getHits() + map.getFrontCache().getMisses());
+	}
+
+	@Test
+	void stringIntMapWithCache() {
+		Map<String, Integer> testData = testData(1_000);
+		MPHStringIntMap map = MPHStringIntMap.build(testData).withFrontCache(100);
+		assertEquals(128, map.getFrontCache().getCapacity());
+		for (int round = 0; round < 3; round++) {
+			for (Map.Entry<String, Integer> entry : testData.entrySet()) {
+				assertEquals(entry.getValue(), map.get(entry.getKey()));
+				assertFalse(map.containsKey(entry.getKey() + "x"));
+			}
+		}
+		assertNull(MPHStringIntMap.build(new HashMap<>()).withFrontCache(8).get("foo"));
+	}
+
+	@Test
+	void hotKeysStayCached() {
+		MPHStringIntMap map = MPHStringIntMap.build(testData(10_000)).withFrontCache(1_024, true);
+		MPHFrontCache cache = map.getFrontCache();
+		// a few hot keys are requested between a scan over all keys
+		for (int i = 0; i < 10_000; i++) {
+			assertEquals(i % 10, map.get("query " + (i % 10)));
+			assertEquals(i, map.get("query " + i));
+		}
+		cache.resetStats();
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, map.get("query " + i));
+		}
+		assertEquals(1.0, cache.getHitRate());
+	}
+
+	@Test
+	void statsAreOptional() {
+		MPHStringIntMap map = MPHStringIntMap.build(testData(10)).withFrontCache(16);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, map.get("query " + i));
+			assertEquals(i, map.get("query " + i));
+		}
+		assertFalse(map.getFrontCache().isRecordingStats());
+		assertEquals(0, map.getFrontCache().getHits());
+		assertEquals(0, map.getFrontCache().getMisses());
+		assertTrue(MPHStringIntMap.build(testData(10)).withFrontCache(16, true).getFrontCache().isRecordingStats());
+	}
+
+	@Test
+	void concurrentReplacementsKeepKeysAndIndexesTogether() throws InterruptedException {
+		Map<String, Integer> testData = testData(1_000);
+		String[] keys = testData.keySet().toArray(new String[0]);
+		// a tiny cache, so the threads keep replacing the same slots
+		MPHStringIntMap map = MPHStringIntMap.build(testData).withFrontCache(4);
+		boolean[] failed = new boolean[1];
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			int offset = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 200_000; i++) {
+					String key = keys[(i * 7 + offset) % keys.length];
+					if (map.get(key) != testData.get(key).intValue()) failed[0] = true;
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertFalse(failed[0]);
+	}
+
+	@Test
+	void noCacheByDefault() {
+		assertNull(MPHStringIntMap.build(testData(10)).getFrontCache());
+		assertNull(MPHStringMap.build(testData(10)).getFrontCache());
+		assertThrows(IllegalArgumentException.class, () -> MPHStringMap.build(testData(10)).withFrontCache(0));
+	}
+}
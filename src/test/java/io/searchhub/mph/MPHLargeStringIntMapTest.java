@@ -0,0 +1,71 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MPHLargeStringIntMapTest {
+
+	@Test
+	void shardedLookup() {
+		Map<String, Integer> testData = new HashMap<>();
+		for (int i = 0; i < 10_000; i++) {
+			testData.put("query " + i, i - 5_000);
+		}
+		// small chunks, so the values span many chunks
+		MPHLargeStringIntMap map = MPHLargeStringIntMap.builder(7).chunkBits(10).putAll(testData).build();
+		assertEquals(10_000L, map.size());
+		assertEquals(7, map.shardCount());
+
+		boolean[] usedIndexes = new boolean[10_000];
+		for (Map.Entry<String, Integer> entry : testData.entrySet()) {
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+			long index = map.index(entry.getKey());
+			assertFalse(usedIndexes[(int) index], "index used twice");
+			usedIndexes[(int) index] = true;
+			assertNull(map.get(entry.getKey() + "x"));
+			assertEquals(-1, map.getOrDefault(entry.getKey() + "x", -1));
+		}
+	}
+
+	@Test
+	void fromData() {
+		MPHLargeStringIntMap map = MPHLargeStringIntMap.builder(3).put("a", 3).put("b", 2).build();
+		MPHLargeStringIntMap loaded = MPHLargeStringIntMap.fromData(map.getSerializableMphMapData());
+		assertEquals(2, loaded.size());
+		assertEquals(3, loaded.get("a"));
+		assertEquals(2, loaded.get("b"));
+		assertFalse(loaded.containsKey("c"));
+	}
+
+	@Test
+	void duplicateKeys() {
+		MPHLargeStringIntMap.Builder builder = MPHLargeStringIntMap.builder(3).put("a", 1).put("b", 2).put("a", 3);
+		assertThrows(IllegalArgumentException.class, builder::build);
+	}
+
+	@Test
+	void emptyShards() {
+		MPHLargeStringIntMap map = MPHLargeStringIntMap.builder(16).put("single", 42).build();
+		assertEquals(42, map.get("single"));
+		assertNull(map.get("other"));
+		assertTrue(MPHLargeStringIntMap.builder(2).build().isEmpty());
+	}
+
+	@Test
+	void chunkedArray() {
+		LongBigArray array = new LongBigArray(100, 4);
+		for (long i = 0; i < 100; i++) {
+			array.set(i, i * 3);
+		}
+		assertEquals(7, array.getChunks().length);
+		assertEquals(4, array.getChunks()[6].length);
+		LongBigArray wrapped = new LongBigArray(array.getChunks(), 4);
+		assertEquals(100, wrapped.length());
+		assertEquals(297, wrapped.get(99));
+		assertThrows(IllegalArgumentException.class, () -> new LongBigArray(new long[][]{ new long[3], new long[16] }, 4));
+	}
+}
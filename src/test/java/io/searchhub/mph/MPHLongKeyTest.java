@@ -0,0 +1,70 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MPHLongKeyTest {
+
+	private static long[] productIds(int count) {
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = 1_000_000_000_000L + i * 7L;
+		}
+		return keys;
+	}
+
+	@Test
+	void longSet() {
+		long[] keys = productIds(5_000);
+		MPHLongSet set = MPHLongSet.build(keys);
+		assertEquals(5_000, set.size());
+		for (long key : keys) {
+			assertTrue(set.contains(key));
+			assertFalse(set.contains(key + 1));
+		}
+		MPHLongSet loaded = MPHLongSet.fromData(set.getSerializableData());
+		assertTrue(loaded.contains(keys[42]));
+		assertTrue(MPHLongSet.build().isEmpty());
+		assertFalse(MPHLongSet.build().contains(1));
+		assertThrows(IllegalArgumentException.class, () -> MPHLongSet.build(1, 2, 1));
+	}
+
+	@Test
+	void longIntMap() {
+		long[] keys = productIds(5_000);
+		MPHLongIntMap map = MPHLongIntMap.build(keys, key -> (int) -key);
+		for (long key : keys) {
+			assertEquals((int) -key, map.get(key));
+			assertNull(map.get(key + 1));
+			assertEquals(-1, map.getOrDefault(key + 1, -1));
+		}
+		MPHLongIntMap loaded = MPHLongIntMap.fromData(map.getSerializableMphMapData());
+		assertEquals((int) -keys[1], loaded.getOrDefault(keys[1], 0));
+
+		Map<Long, Integer> data = new HashMap<>();
+		data.put(-5L, 5);
+		data.put(Long.MAX_VALUE, 7);
+		MPHLongIntMap fromMap = MPHLongIntMap.build(data);
+		assertEquals(5, fromMap.get(-5L));
+		assertEquals(7, fromMap.get(Long.MAX_VALUE));
+	}
+
+	@Test
+	void longMap() {
+		Map<Long, String> data = new HashMap<>();
+		for (long key : productIds(1_000)) {
+			data.put(key, "product " + key);
+		}
+		MPHLongMap<String> map = MPHLongMap.build(data);
+		data.forEach((key, value) -> {
+			assertEquals(value, map.get(key));
+			assertFalse(map.containsKey(key + 1));
+		});
+		assertEquals(1_000, map.values().size());
+		assertEquals(data.get(1_000_000_000_007L), MPHLongMap.fromData(map.getSerializableMphMapData()).get(1_000_000_000_007L));
+	}
+}
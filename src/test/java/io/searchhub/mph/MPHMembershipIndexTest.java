@@ -0,0 +1,80 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class MPHMembershipIndexTest {
+
+	private static MPHMembershipIndex buildIndex() {
+		Map<String, Set<String>> sets = new LinkedHashMap<>();
+		sets.put("blocklist", new HashSet<>(Arrays.asList("cheap", "free")));
+		sets.put("brands", new HashSet<>(Arrays.asList("acme", "globex", "free")));
+		sets.put("categories", new HashSet<>(Arrays.asList("shoes", "acme")));
+		return MPHMembershipIndex.build(sets);
+	}
+
+	@Test
+	void membership() {
+		MPHMembershipIndex index = buildIndex();
+		assertEquals(5, index.size());
+		assertEquals(0b001, index.membership("cheap"));
+		assertEquals(0b011, index.membership("free"));
+		assertEquals(0b110, index.membership("acme"));
+		assertEquals(0b100, index.membership("shoes"));
+		assertEquals(0, index.membership("unknown"));
+		assertTrue(index.isMember("globex", index.setIndex("brands")));
+		assertFalse(index.isMember("globex", index.setIndex("blocklist")));
+		assertEquals(Arrays.asList("brands", "categories"), index.setNamesOf("acme"));
+		assertEquals(Collections.emptyList(), index.setNamesOf("unknown"));
+		assertEquals(-1, index.setIndex("unknown"));
+	}
+
+	@Test
+	void invalidSetIndex() {
+		MPHMembershipIndex index = buildIndex();
+		assertThrows(IllegalArgumentException.class, () -> index.isMember("cheap", -1));
+		assertThrows(IllegalArgumentException.class, () -> index.isMember("cheap", 3));
+		assertThrows(IllegalArgumentException.class, () -> index.isMember("cheap", 64));
+		assertThrows(IllegalArgumentException.class, () -> index.isMember("cheap", index.setIndex("unknown")));
+	}
+
+	@Test
+	void fromData() {
+		MPHMembershipIndex index = MPHMembershipIndex.fromData(buildIndex().getSerializableData());
+		assertEquals(0b011, index.membership("free"));
+		assertEquals(Arrays.asList("blocklist", "brands", "categories"), index.getSetNames());
+	}
+
+	@Test
+	void manySets() {
+		Map<String, Set<String>> sets = new LinkedHashMap<>();
+		for (int i = 0; i < 64; i++) {
+			Set<String> set = new HashSet<>();
+			for (int k = 0; k < 200; k++) {
+				if (k % (i + 1) == 0) set.add("key " + k);
+			}
+			sets.put("set " + i, set);
+		}
+		MPHMembershipIndex index = MPHMembershipIndex.build(sets);
+		for (int k = 0; k < 200; k++) {
+			long expected = 0;
+			for (int i = 0; i < 64; i++) {
+				if (k % (i + 1) == 0) expected |= 1L << i;
+			}
+			assertEquals(expected, index.membership("key " + k));
+		}
+
+		sets.put("set 64", Collections.singleton("x"));
+		assertThrows(IllegalArgumentException.class, () -> MPHMembershipIndex.build(sets));
+	}
+
+	@Test
+	void empty() {
+		MPHMembershipIndex index = MPHMembershipIndex.build(Collections.singletonMap("empty", Collections.emptySet()));
+		assertEquals(0, index.size());
+		assertEquals(0, index.membership("foo"));
+	}
+}
@@ -0,0 +1,93 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class MPHPartitionedCollectionTest {
+
+	@Test
+	void partitionerIsStable() {
+		MPHKeyPartitioner partitioner = new MPHKeyPartitioner(16);
+		// golden values: they must never change, otherwise nodes built with different versions disagree
+		assertEquals(9, partitioner.partitionOf("running shoes"));
+		assertEquals(9, partitioner.partitionOf(new StringBuilder("running shoes")));
+		assertEquals(8, partitioner.partitionOf("t-shirt"));
+		assertEquals(10, partitioner.partitionOf("\u00c4PFEL"));
+		assertEquals(15, partitioner.partitionOf(""));
+		MPHKeyPartitioner finePartitioner = new MPHKeyPartitioner(1000);
+		assertEquals(564, finePartitioner.partitionOf("running shoes"));
+		assertEquals(532, finePartitioner.partitionOf("t-shirt"));
+		assertEquals(654, finePartitioner.partitionOf("\u00c4PFEL"));
+		assertEquals(943, finePartitioner.partitionOf(""));
+		int[] counts = new int[16];
+		for (int i = 0; i < 16_000; i++) {
+			counts[partitioner.partitionOf("query " + i)]++;
+		}
+		for (int count : counts) {
+			assertTrue(count > 800 && count < 1200, "unbalanced partition with " + count + " keys");
+		}
+	}
+
+	@Test
+	void partitionsOfNode() {
+		MPHKeyPartitioner partitioner = new MPHKeyPartitioner(10);
+		Set<Integer> allPartitions = new HashSet<>();
+		for (int node = 0; node < 3; node++) {
+			for (int partition : partitioner.partitionsOfNode(node, 3)) {
+				assertTrue(allPartitions.add(partition));
+			}
+		}
+		assertEquals(10, allPartitions.size());
+		assertEquals(0, new MPHKeyPartitioner(2).partitionsOfNode(0, 4).length);
+		assertThrows(IllegalArgumentException.class, () -> partitioner.partitionsOfNode(3, 3));
+	}
+
+	@Test
+	void loadOnlyAssignedPartitions() {
+		Map<String, Integer> testData = new HashMap<>();
+		for (int i = 0; i < 1_000; i++) {
+			testData.put("query " + i, i);
+		}
+		MPHPartitionedCollection<MPHStringIntMap> all = MPHPartitionedCollection.buildStringIntMaps(testData, 8);
+		MPHKeyPartitioner partitioner = all.getPartitioner();
+
+		// node 1 of 2: serialize and load its partitions only
+		Map<Integer, MPHStringIntMap> loaded = new HashMap<>();
+		for (int partition : partitioner.partitionsOfNode(1, 2)) {
+			MPHStringIntMap.SerializableData data = all.getPartition(partition).getSerializableMphMapData();
+			loaded.put(partition, MPHStringIntMap.fromData(data));
+		}
+		MPHPartitionedCollection<MPHStringIntMap> local = MPHPartitionedCollection.ofPartitions(new MPHKeyPartitioner(8), loaded);
+
+		int localKeys = 0;
+		for (Map.Entry<String, Integer> entry : testData.entrySet()) {
+			int partition = partitioner.partitionOf(entry.getKey());
+			if (partition >= 4) {
+				localKeys++;
+				assertTrue(local.ownsKey(entry.getKey()));
+				assertEquals(entry.getValue(), local.partitionFor(entry.getKey()).get(entry.getKey()));
+			}
+			else {
+				assertFalse(local.isLoaded(partition));
+				assertNull(local.partitionFor(entry.getKey()));
+			}
+		}
+		assertTrue(localKeys > 0 && localKeys < testData.size());
+	}
+
+	@Test
+	void stringMaps() {
+		Map<String, String> testData = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			testData.put("query " + i, "value " + i);
+		}
+		MPHPartitionedCollection<MPHStringMap<String>> partitioned = MPHPartitionedCollection.buildStringMaps(testData, 3);
+		for (Map.Entry<String, String> entry : testData.entrySet()) {
+			assertEquals(entry.getValue(), partitioned.partitionFor(entry.getKey()).get(entry.getKey()));
+		}
+		assertThrows(IllegalArgumentException.class, () -> MPHPartitionedCollection.ofPartitions(new MPHKeyPartitioner(3), Collections.singletonMap(3, "x")));
+	}
+}
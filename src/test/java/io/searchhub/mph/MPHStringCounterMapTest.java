@@ -0,0 +1,93 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+class MPHStringCounterMapTest {
+
+	private static Set<String> keys(int size) {
+		Set<String> keys = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			keys.add("query " + i);
+		}
+		return keys;
+	}
+
+	@Test
+	void counting() {
+		MPHStringCounterMap counters = MPHStringCounterMap.build(keys(100));
+		assertEquals(100, counters.size());
+		assertTrue(counters.increment("query 1"));
+		assertTrue(counters.add("query 1", 4));
+		assertFalse(counters.increment("unknown"));
+		assertEquals(5, counters.get("query 1"));
+		assertEquals(0, counters.get("query 2"));
+		assertEquals(15, counters.addAndGet("query 1", 10));
+		assertTrue(counters.compareAndSet("query 1", 15, 20));
+		assertFalse(counters.compareAndSet("query 1", 15, 30));
+		assertEquals(20, counters.get("query 1"));
+		assertEquals(-1, counters.getOrDefault("unknown", -1));
+		assertThrows(IllegalArgumentException.class, () -> counters.get("unknown"));
+		assertThrows(IllegalArgumentException.class, () -> counters.addAndGet("unknown", 1));
+	}
+
+	@Test
+	void snapshots() {
+		MPHStringCounterMap counters = MPHStringCounterMap.build(keys(100));
+		counters.set("query 7", 7);
+		MPHStringIntMap snapshot = counters.snapshot();
+		assertEquals(7, snapshot.get("query 7"));
+		assertEquals(0, snapshot.get("query 8"));
+		assertNull(snapshot.get("unknown"));
+
+		MPHStringIntMap resetSnapshot = counters.snapshotAndReset();
+		assertEquals(7, resetSnapshot.get("query 7"));
+		assertEquals(0, counters.get("query 7"));
+
+		// continue counting from a serialized snapshot
+		MPHStringCounterMap restored = MPHStringCounterMap.fromData(snapshot.getSerializableMphMapData());
+		assertEquals(8, restored.addAndGet("query 7", 1));
+
+		counters.set("query 1", Integer.MAX_VALUE + 1L);
+		assertThrows(ArithmeticException.class, counters::snapshotAndReset);
+		assertEquals(Integer.MAX_VALUE + 1L, counters.get("query 1"));
+		counters.set("query 2", 2);
+		assertThrows(ArithmeticException.class, counters::snapshotAndReset);
+		assertEquals(2, counters.get("query 2"));
+	}
+
+	@Test
+	void concurrentIncrements() throws Exception {
+		Set<String> keys = keys(1_000);
+		MPHStringCounterMap counters = MPHStringCounterMap.build(keys);
+		String[] keyArray = keys.toArray(new String[0]);
+		int threadCount = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threadCount; t++) {
+				futures.add(executor.submit(() -> {
+					for (int round = 0; round < 100; round++) {
+						for (String key : keyArray) {
+							counters.increment(key);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		MPHStringIntMap snapshot = counters.snapshot();
+		for (String key : keys) {
+			assertEquals(400, snapshot.get(key));
+		}
+	}
+}
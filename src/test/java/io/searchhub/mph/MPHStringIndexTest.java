@@ -0,0 +1,56 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class MPHStringIndexTest {
+
+	@Test
+	void denseOrdinals() {
+		Set<String> keys = new HashSet<>();
+		for (int i = 0; i < 5_000; i++) {
+			keys.add("query " + i);
+		}
+		MPHStringIndex index = MPHStringIndex.build(keys);
+		assertEquals(5_000, index.size());
+
+		BitSet usedOrdinals = new BitSet();
+		for (String key : keys) {
+			int ordinal = index.ordinal(key);
+			assertTrue(ordinal >= 0 && ordinal < index.size());
+			assertFalse(usedOrdinals.get(ordinal), "ordinal used twice");
+			usedOrdinals.set(ordinal);
+			assertEquals(-1, index.ordinal(key + "x"));
+		}
+		assertEquals(5_000, usedOrdinals.cardinality());
+	}
+
+	@Test
+	void fromData() {
+		MPHStringIndex index = MPHStringIndex.build(new HashSet<>(Arrays.asList("a", "b", "c")));
+		MPHStringIndex loaded = MPHStringIndex.fromData(index.getSerializableData(), true);
+		for (String key : Arrays.asList("a", "b", "c")) {
+			assertEquals(index.ordinal(key), loaded.ordinal(key));
+		}
+		assertFalse(loaded.contains("d"));
+	}
+
+	@Test
+	void sameLayoutAsStringSet() {
+		Set<String> keys = new HashSet<>(Arrays.asList("a", "b", "c"));
+		MPHStringSet.SerializableData setData = new MPHStringSet(keys).toSerializable();
+		MPHStringIndex.SerializableData indexData = MPHStringIndex.build(keys).getSerializableData();
+		assertArrayEquals(setData.getMphFunctionData(), indexData.getMphFunctionData());
+		assertArrayEquals(setData.getSecondaryHashes(), indexData.getFingerprints());
+	}
+
+	@Test
+	void empty() {
+		MPHStringIndex index = MPHStringIndex.build(Collections.emptySet());
+		assertTrue(index.isEmpty());
+		assertEquals(-1, index.ordinal("foo"));
+	}
+}
@@ -0,0 +1,93 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MPHStringIntArrayMapTest {
+
+	Map<String, int[]>   testData = new HashMap<>();
+	MPHStringIntArrayMap underTest;
+
+	@BeforeEach
+	public void setup() {
+		Random random = new Random();
+		for (int i = 1; i < 'Z'; i++) {
+			String key = i + " " + (i + random.nextInt());
+			int[] values = new int[i % 7];
+			for (int v = 0; v < values.length; v++) {
+				values[v] = random.nextInt();
+			}
+			testData.put(key, values);
+		}
+		underTest = MPHStringIntArrayMap.build(testData);
+	}
+
+	@Test
+	void size() {
+		assertEquals(testData.size(), underTest.size());
+		assertEquals(testData.values().stream().mapToInt(v -> v.length).sum(), underTest.valueCount());
+	}
+
+	@Test
+	void get() {
+		for (Map.Entry<String, int[]> testDataEntry : testData.entrySet()) {
+			IntSlice slice = underTest.get(testDataEntry.getKey());
+			assertArrayEquals(testDataEntry.getValue(), slice.toArray());
+			assertArrayEquals(testDataEntry.getValue(), slice.stream().toArray());
+			assertEquals(testDataEntry.getValue().length, slice.size());
+			assertEquals(testDataEntry.getValue().length, underTest.valueCount(testDataEntry.getKey()));
+			for (int i = 0; i < slice.size(); i++) {
+				assertEquals(testDataEntry.getValue()[i], slice.get(i));
+			}
+			assertThrows(IndexOutOfBoundsException.class, () -> slice.get(slice.size()));
+		}
+	}
+
+	@Test
+	void missingKeys() {
+		for (String key : testData.keySet()) {
+			String unexpectedKey = key + "xx";
+			assertFalse(underTest.containsKey(unexpectedKey));
+			assertNull(underTest.get(unexpectedKey));
+			assertEquals(-1, underTest.valueCount(unexpectedKey));
+			assertFalse(underTest.forEachValue(unexpectedKey, v -> fail("unexpected value " + v)));
+		}
+	}
+
+	@Test
+	void forEachValue() {
+		for (Map.Entry<String, int[]> testDataEntry : testData.entrySet()) {
+			List<Integer> consumed = new ArrayList<>();
+			assertTrue(underTest.forEachValue(testDataEntry.getKey(), consumed::add));
+			assertArrayEquals(testDataEntry.getValue(), consumed.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	@Test
+	void empty() {
+		assertFalse(underTest.isEmpty());
+		MPHStringIntArrayMap emptyMap = MPHStringIntArrayMap.build(Collections.emptyMap());
+		assertTrue(emptyMap.isEmpty());
+		assertEquals(0, emptyMap.size());
+		assertNull(emptyMap.get("a"));
+	}
+
+	@Test
+	void serializationRoundTrip() throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ObjectOutputStream objectOut = new ObjectOutputStream(out);
+		objectOut.writeObject(underTest.getSerializableMphMapData());
+		objectOut.close();
+
+		ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()));
+		MPHStringIntArrayMap.SerializableData deserializedData = (MPHStringIntArrayMap.SerializableData) objectInputStream.readObject();
+		underTest = MPHStringIntArrayMap.fromData(deserializedData);
+		get();
+		missingKeys();
+	}
+}
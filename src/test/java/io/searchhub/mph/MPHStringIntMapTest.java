@@ -3,7 +3,9 @@ package io.searchhub.mph;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
-import java.util.Map;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class MPHStringIntMapTest extends AbstractMPHStringIntegerMapTest<MPHStringIntMap> {
 
@@ -26,4 +28,50 @@ class MPHStringIntMapTest extends AbstractMPHStringIntegerMapTest<MPHStringIntMa
 		values();
 	}
 
+	@Test
+	void countOf() {
+		for (Integer value : testData.values()) {
+			assertEquals(1, underTest.countOf(value));
+		}
+		assertEquals(0, underTest.countOf(-1));
+		assertFalse(underTest.containsValue("no integer"));
+		assertFalse(underTest.containsValue(null));
+
+		MPHStringIntMap sameValueMap = MPHStringIntMap.build(testData.keySet(), k -> 7);
+		assertEquals(testData.size(), sameValueMap.countOf(7));
+		assertEquals(0, MPHStringIntMap.build(Collections.emptyMap()).countOf(0));
+	}
+
+	@Test
+	void primitiveValueViews() {
+		List<Integer> expectedValues = new ArrayList<>(testData.values());
+		Collections.sort(expectedValues);
+
+		List<Integer> consumedValues = new ArrayList<>();
+		underTest.forEachValue(consumedValues::add);
+		Collections.sort(consumedValues);
+		assertEquals(expectedValues, consumedValues);
+
+		assertArrayEquals(expectedValues.stream().mapToInt(Integer::intValue).toArray(), underTest.valueStream().sorted().toArray());
+
+		List<Integer> iteratedValues = new ArrayList<>();
+		PrimitiveIterator.OfInt valueIterator = underTest.valueIterator();
+		while (valueIterator.hasNext()) {
+			iteratedValues.add(valueIterator.nextInt());
+		}
+		assertThrows(NoSuchElementException.class, valueIterator::nextInt);
+		assertEquals(underTest.values(), iteratedValues);
+		assertThrows(UnsupportedOperationException.class, () -> underTest.values().add(1));
+	}
+
+	@Test
+	void negativeValues() {
+		Map<String, Integer> data = new HashMap<>();
+		data.put("a", -1);
+		data.put("b", Integer.MIN_VALUE);
+		MPHStringIntMap map = MPHStringIntMap.build(data);
+		assertEquals(-1, map.get("a"));
+		assertEquals(Integer.MIN_VALUE, map.get("b"));
+		assertNull(map.get("c"));
+	}
 }
@@ -0,0 +1,56 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class MPHStringInternerTest {
+
+	private static final List<String> VOCABULARY = Arrays.asList("Schuhe", "Größe", "brand", "カテゴリ", "emoji 😀", "brand");
+
+	@Test
+	void canonicalInstances() {
+		MPHStringInterner interner = MPHStringInterner.build(VOCABULARY);
+		assertEquals(5, interner.size());
+		for (String string : VOCABULARY) {
+			String canonical = interner.intern(new String(string.toCharArray()));
+			assertEquals(string, canonical);
+			assertSame(canonical, interner.intern(new StringBuilder(string)));
+			assertSame(canonical, interner.intern(string.getBytes(StandardCharsets.UTF_8)));
+		}
+		assertSame(VOCABULARY.get(0), interner.lookup("Schuhe"));
+		assertNull(interner.lookup("schuhe"));
+	}
+
+	@Test
+	void utf8Slices() {
+		MPHStringInterner interner = MPHStringInterner.build(VOCABULARY);
+		byte[] line = "x\tGröße\ty".getBytes(StandardCharsets.UTF_8);
+		assertSame(interner.lookup("Größe"), interner.intern(line, 2, "Größe".getBytes(StandardCharsets.UTF_8).length));
+
+		StringBuilder longString = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			longString.append("ä");
+		}
+		assertEquals(longString.toString(), interner.intern(longString.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void fallback() {
+		Set<String> fallbackCalls = new HashSet<>();
+		MPHStringInterner interner = MPHStringInterner.build(VOCABULARY, s -> {
+			fallbackCalls.add(s);
+			return s.intern();
+		});
+		assertSame("unknown", interner.intern(new StringBuilder("unknown")));
+		assertEquals("Schuhe", interner.intern("Schuhe"));
+		assertEquals(Collections.singleton("unknown"), fallbackCalls);
+		assertEquals("�", interner.intern(new byte[]{ (byte) 0xFF }));
+
+		MPHStringInterner empty = MPHStringInterner.build(Collections.emptyList());
+		assertEquals("foo", empty.intern("foo"));
+	}
+}
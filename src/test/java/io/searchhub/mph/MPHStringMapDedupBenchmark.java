@@ -0,0 +1,47 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Build times of {@link MPHStringMap#buildDeduplicated(Set, java.util.function.Function)} compared to the builds with a known value count.
+ * Not part of the regular test run, start it with {@code mvn test -Dtest=MPHStringMapDedupBenchmark}.
+ * Key and value counts can be changed with {@code -Dbenchmark.keys=...} and {@code -Dbenchmark.values=...}.
+ */
+class MPHStringMapDedupBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	@Test
+	void buildTimes() {
+		int keyCount = Integer.getInteger("benchmark.keys", 4_000_000);
+		int valueCount = Integer.getInteger("benchmark.values", 8);
+		Map<String, String> data = new HashMap<>(keyCount * 2);
+		for (int i = 0; i < keyCount; i++) {
+			data.put("query " + i, "category " + (i % valueCount));
+		}
+		System.out.printf("%,d keys, %,d values, %d threads%n", keyCount, valueCount, Runtime.getRuntime().availableProcessors());
+
+		measure("buildDeduplicated", () -> MPHStringMap.buildDeduplicated(data.keySet(), data::get));
+		measure("build with value count", () -> MPHStringMap.build(data.keySet(), data::get, valueCount));
+		measure("build", () -> MPHStringMap.build(data));
+	}
+
+	private static void measure(String name, Supplier<MPHStringMap<String>> build) {
+		// warm up
+		assertFalse(build.get().isEmpty());
+		long[] millis = new long[ROUNDS];
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			MPHStringMap<String> map = build.get();
+			millis[round] = (System.nanoTime() - start) / 1_000_000;
+			assertFalse(map.isEmpty());
+		}
+		Arrays.sort(millis);
+		System.out.printf("%-24s min %,6d ms, median %,6d ms, max %,6d ms%n", name, millis[0], millis[ROUNDS / 2], millis[ROUNDS - 1]);
+	}
+}
@@ -3,7 +3,9 @@ package io.searchhub.mph;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
-import java.util.Map;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class MPHStringMapTest extends AbstractMPHStringIntegerMapTest<MPHStringMap<Integer>> {
 
@@ -26,4 +28,129 @@ class MPHStringMapTest extends AbstractMPHStringIntegerMapTest<MPHStringMap<Inte
 		values();
 	}
 
+	@Test
+	void countOf() {
+		for (Integer value : testData.values()) {
+			assertEquals(1, underTest.countOf(value));
+		}
+		assertEquals(0, underTest.countOf(-1));
+		assertEquals(0, underTest.countOf("no integer"));
+	}
+
+	@Test
+	void valuesAreUnmodifiable() {
+		assertThrows(UnsupportedOperationException.class, () -> underTest.values().add(1));
+		assertThrows(UnsupportedOperationException.class, () -> underTest.values().clear());
+	}
+
+	@Test
+	void nullValues() {
+		Map<String, String> data = new HashMap<>();
+		data.put("a", "x");
+		data.put("b", null);
+		data.put("c", "x");
+		MPHStringMap<String> map = MPHStringMap.build(data);
+		assertTrue(map.containsValue(null));
+		assertTrue(map.containsValue("x"));
+		assertFalse(map.containsValue("y"));
+		assertEquals(2, map.countOf("x"));
+		assertEquals(1, map.countOf(null));
+	}
+
+	@Test
+	void frequencyOrderedValues() {
+		Map<String, String> data = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			data.put("key " + i, "value " + i);
+		}
+		MPHStringMap<String> map = MPHStringMap.buildByAccessFrequency(data, key -> key.equals("key 42") ? 1_000 : key.equals("key 7") ? 500 : 0);
+		assertEquals(Arrays.asList("value 42", "value 7"), new ArrayList<>(map.values()).subList(0, 2));
+		data.forEach((key, value) -> assertEquals(value, map.get(key)));
+	}
+
+	@Test
+	void reorderAndCompactValues() {
+		Map<String, String> data = new HashMap<>();
+		data.put("a", "x");
+		data.put("b", "y");
+		data.put("c", "x");
+		data.put("d", "y");
+		MPHStringMap.SerializableData<String> builtData = MPHStringMap.build(data.keySet(), data::get, 2).getSerializableMphMapData();
+		assertEquals(2, builtData.getValues().size());
+		// add a value slot that no key refers to
+		List<String> values = new ArrayList<>(builtData.getValues());
+		values.add("unused");
+		MPHStringMap<String> map = MPHStringMap.fromData(new MPHStringMap.SerializableData<>(builtData.getLeafSize(), builtData.getAvgBucketSize(),
+				builtData.getMphFunctionData(), builtData.getKeyValueMap(), values));
+
+		Map<String, Long> sample = new HashMap<>();
+		sample.put("b", 10L);
+		sample.put("unknown", 100L);
+		MPHStringMap<String> reordered = map.reorderValues(sample);
+		assertEquals(Arrays.asList("y", "x"), new ArrayList<>(reordered.values()));
+		data.forEach((key, value) -> assertEquals(value, reordered.get(key)));
+		assertNull(reordered.get("unknown"));
+		assertEquals(2, reordered.countOf("x"));
+		assertEquals(2, reordered.countOf("y"));
+	}
+
+	@Test
+	void valueCountBounds() {
+		Map<String, String> data = new HashMap<>();
+		data.put("a", "x");
+		data.put("b", "y");
+		data.put("c", "z");
+		data.put("d", "x");
+		// 3 distinct values, so an exact count works and a lower count must fail
+		assertEquals(3, MPHStringMap.build(data.keySet(), data::get, 3).values().size());
+		assertThrows(IllegalArgumentException.class, () -> MPHStringMap.build(data.keySet(), data::get, 2));
+		// overestimated counts do not leave empty value slots
+		assertEquals(3, MPHStringMap.build(data.keySet(), data::get, 10).values().size());
+	}
+
+	@Test
+	void automaticDeduplication() {
+		Map<String, String> data = new LinkedHashMap<>();
+		for (int i = 0; i < 10_000; i++) {
+			data.put("query " + i, i % 100 == 0 ? null : "category " + (i % 37));
+		}
+		MPHStringMap<String> map = MPHStringMap.buildDeduplicated(data.keySet(), data::get);
+		assertEquals(10_000, map.size());
+		assertEquals(38, map.values().size());
+		data.forEach((key, value) -> assertEquals(value, map.get(key)));
+		assertNull(map.get("unknown"));
+		assertEquals(100, map.countOf(null));
+
+		// value order follows the first occurrence, so builds are reproducible
+		assertEquals(new ArrayList<>(map.values()), new ArrayList<>(MPHStringMap.buildDeduplicated(data.keySet(), data::get).values()));
+		assertNull(new ArrayList<>(map.values()).get(0));
+		assertEquals("category 1", new ArrayList<>(map.values()).get(1));
+
+		assertTrue(MPHStringMap.buildDeduplicated(Collections.<String>emptySet(), key -> "x").isEmpty());
+	}
+
+	@Test
+	void automaticDeduplicationAcrossChunks() {
+		Map<String, String> data = new LinkedHashMap<>();
+		for (int i = 0; i < 200_000; i++) {
+			// later chunks see new values as well as values of earlier chunks
+			data.put("query " + i, i % 1000 == 7 ? null : "category " + (i % (1 + i / 10_000)));
+		}
+		MPHStringMap<String> map = MPHStringMap.buildDeduplicated(data.keySet(), data::get);
+		List<String> expectedValues = new ArrayList<>(new LinkedHashSet<>(data.values()));
+		assertEquals(expectedValues, new ArrayList<>(map.values()));
+		data.forEach((key, value) -> assertEquals(value, map.get(key)));
+		assertNull(map.get("query -1"));
+	}
+
+	@Test
+	void automaticDeduplicationWithNormalization() {
+		Map<String, Integer> data = new HashMap<>();
+		data.put("Foo", 1);
+		data.put("bar ", 1);
+		MPHStringMap<Integer> map = MPHStringMap.buildDeduplicated(data.keySet(), data::get, EnumSet.of(KeyNormalization.LOWER_CASE, KeyNormalization.TRIM));
+		assertEquals(1, map.values().size());
+		assertEquals(1, map.get("FOO"));
+		assertEquals(1, map.get("bar"));
+	}
 }
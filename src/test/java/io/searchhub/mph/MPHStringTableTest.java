@@ -0,0 +1,89 @@
+package io.searchhub.mph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MPHStringTableTest {
+
+	Map<String, Integer> popularity = new HashMap<>();
+	Map<String, String>  redirects  = new HashMap<>();
+	MPHStringTable       underTest;
+
+	@BeforeEach
+	public void setup() {
+		Random random = new Random();
+		for (int i = 1; i < 'Z'; i++) {
+			String key = i + " " + (i + random.nextInt());
+			popularity.put(key, i);
+			redirects.put(key, i % 3 == 0 ? null : "redirect-" + i);
+		}
+		underTest = MPHStringTable.builder(popularity.keySet())
+				.intColumn("popularity", popularity::get)
+				.longColumn("timestamp", k -> popularity.get(k) * 1_000_000_000_000L)
+				.floatColumn("score", k -> popularity.get(k) / 10f)
+				.objectColumn("redirect", redirects::get)
+				.build();
+	}
+
+	@Test
+	void lookupAllColumns() {
+		MPHStringTable.IntColumn popularityColumn = underTest.intColumn("popularity");
+		MPHStringTable.LongColumn timestampColumn = underTest.longColumn("timestamp");
+		MPHStringTable.FloatColumn scoreColumn = underTest.floatColumn("score");
+		MPHStringTable.ObjectColumn<String> redirectColumn = underTest.objectColumn("redirect");
+		for (Map.Entry<String, Integer> entry : popularity.entrySet()) {
+			int row = underTest.row(entry.getKey());
+			assertTrue(row >= 0);
+			assertEquals(entry.getValue(), popularityColumn.get(row));
+			assertEquals(entry.getValue() * 1_000_000_000_000L, timestampColumn.get(row));
+			assertEquals(entry.getValue() / 10f, scoreColumn.get(row));
+			assertEquals(redirects.get(entry.getKey()), redirectColumn.get(row));
+			assertEquals(redirects.get(entry.getKey()), redirectColumn.get(entry.getKey()));
+		}
+	}
+
+	@Test
+	void missingKeys() {
+		MPHStringTable.IntColumn popularityColumn = underTest.intColumn("popularity");
+		for (String key : popularity.keySet()) {
+			String unexpectedKey = key + "xx";
+			assertEquals(-1, underTest.row(unexpectedKey));
+			assertFalse(underTest.containsKey(unexpectedKey));
+			assertEquals(-5, popularityColumn.getOrDefault(unexpectedKey, -5));
+			assertNull(underTest.objectColumn("redirect").get(unexpectedKey));
+		}
+	}
+
+	@Test
+	void columns() {
+		assertEquals(Arrays.asList("popularity", "timestamp", "score", "redirect"), new ArrayList<>(underTest.columnNames()));
+		assertThrows(IllegalArgumentException.class, () -> underTest.intColumn("redirect"));
+		assertThrows(IllegalArgumentException.class, () -> MPHStringTable.builder(popularity.keySet()).intColumn("a", k -> 1).longColumn("a", k -> 1L));
+	}
+
+	@Test
+	void empty() {
+		MPHStringTable emptyTable = MPHStringTable.builder(Collections.emptySet()).intColumn("popularity", k -> 1).build();
+		assertTrue(emptyTable.isEmpty());
+		assertEquals(-1, emptyTable.row("a"));
+		assertEquals(0, emptyTable.intColumn("popularity").getOrDefault("a", 0));
+	}
+
+	@Test
+	void serializationRoundTrip() throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ObjectOutputStream objectOut = new ObjectOutputStream(out);
+		objectOut.writeObject(underTest.getSerializableData());
+		objectOut.close();
+
+		ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()));
+		underTest = MPHStringTable.fromData((MPHStringTable.SerializableData) objectInputStream.readObject());
+		lookupAllColumns();
+		missingKeys();
+	}
+}
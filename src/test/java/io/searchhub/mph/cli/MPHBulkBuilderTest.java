@@ -0,0 +1,116 @@
+package io.searchhub.mph.cli;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import io.searchhub.mph.MPHBinaryFormat;
+import io.searchhub.mph.MPHStringIntMap;
+import io.searchhub.mph.MPHStringMap;
+import io.searchhub.mph.MPHStringSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MPHBulkBuilderTest {
+
+	@TempDir
+	Path dir;
+
+	private int run(String... args) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int exitCode = MPHBulkBuilder.run(args, new PrintStream(out), new PrintStream(out));
+		if (exitCode == 0) assertTrue(out.toString().contains("bits/key"), out.toString());
+		return exitCode;
+	}
+
+	private static Object readObject(Path file) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(file))) {
+			return in.readObject();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void gzipTsvToStringMap() throws Exception {
+		Path input = dir.resolve("input.tsv.gz");
+		try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(input)), StandardCharsets.UTF_8)) {
+			writer.write("query\tcategory\n");
+			for (int i = 0; i < 1_000; i++) {
+				writer.write("query " + i + "\tcategory " + (i % 10) + "\n");
+			}
+		}
+		Path output = dir.resolve("map.ser");
+		assertEquals(0, run("--type", "map", "--input", input.toString(), "--output", output.toString(), "--skip-header"));
+
+		MPHStringMap<String> map = MPHStringMap.fromData((MPHStringMap.SerializableData<String>) readObject(output));
+		assertEquals(1_000, map.size());
+		assertEquals(10, map.values().size());
+		assertEquals("category 3", map.get("query 13"));
+		assertNull(map.get("query"));
+	}
+
+	@Test
+	void csvToBinaryIntMap() throws Exception {
+		Path input = dir.resolve("input.csv");
+		Files.write(input, Arrays.asList("7,\"a, quoted \"\"key\"\"\"", "-3,plain"), StandardCharsets.UTF_8);
+		Path output = dir.resolve("intmap.bin");
+		assertEquals(0, run("--type", "intmap", "--format", "csv", "--key-column", "1", "--value-column", "0",
+				"--output-format", "binary", "--input", input.toString(), "--output", output.toString(), "--threads", "2"));
+
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(output))) {
+			MPHStringIntMap map = MPHBinaryFormat.readStringIntMap(in);
+			assertEquals(7, map.get("a, quoted \"key\""));
+			assertEquals(-3, map.get("plain"));
+		}
+	}
+
+	@Test
+	void linesToStringSet() throws Exception {
+		Path input = dir.resolve("input.txt");
+		Files.write(input, Arrays.asList("foo", "", "bar", "foo"), StandardCharsets.UTF_8);
+		Path output = dir.resolve("set.ser");
+		assertEquals(0, run("--type", "set", "--format", "lines", "--input", input.toString(), "--output", output.toString()));
+
+		MPHStringSet set = new MPHStringSet((MPHStringSet.SerializableData) readObject(output));
+		assertEquals(2, set.size());
+		assertTrue(set.contains("foo"));
+		assertTrue(set.contains("bar"));
+	}
+
+	@Test
+	void buildParameters() throws Exception {
+		Path input = dir.resolve("input.txt");
+		Files.write(input, Arrays.asList("foo", "bar", "baz"), StandardCharsets.UTF_8);
+		Path output = dir.resolve("set.ser");
+		assertEquals(0, run("--type", "set", "--format", "lines", "--leaf-size", "6", "--avg-bucket-size", "100",
+				"--input", input.toString(), "--output", output.toString()));
+
+		MPHStringSet.SerializableData data = (MPHStringSet.SerializableData) readObject(output);
+		assertEquals(6, data.getLeafSize());
+		assertEquals(100, data.getAvgBucketSize());
+		assertTrue(new MPHStringSet(data).contains("baz"));
+		assertEquals(2, run("--type", "set", "--leaf-size", "0", "--input", input.toString(), "--output", output.toString()));
+	}
+
+	@Test
+	void errors() throws Exception {
+		Path input = dir.resolve("input.tsv");
+		Files.write(input, Arrays.asList("a\t1", "a\t2"), StandardCharsets.UTF_8);
+		String output = dir.resolve("out").toString();
+		assertEquals(1, run("--type", "intmap", "--input", input.toString(), "--output", output));
+		assertEquals(2, run("--type", "intmap", "--input", input.toString()));
+		assertEquals(2, run("--type", "map", "--format", "lines", "--input", input.toString(), "--output", output));
+		assertEquals(2, run("--unknown", "x"));
+	}
+
+	@Test
+	void splitCsv() {
+		assertEquals(Arrays.asList("a", "", "b,c", "d\"e"), MPHBulkBuilder.splitCsv("a,,\"b,c\",\"d\"\"e\""));
+		assertEquals(Arrays.asList("a", "", "b"), MPHBulkBuilder.splitTsv("a\t\tb"));
+	}
+}